@@ -0,0 +1,125 @@
+import java.io.*;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Solves many terminal sets (one per student career profile) against one shared graph and
+ * streams a result line per set as soon as it is solved. All queries share one
+ * {@link ShortestPathCache}, so courses that appear in many profiles are searched only once.
+ *
+ * Input is CSV, read with {@link CsvRecordReader}, one terminal set per record (blank lines and
+ * records whose first field starts with '#' are skipped):
+ * <pre>profile_id,course_id,course_id,...</pre>
+ * so a quoted course ID may contain commas. Output is CSV with the header
+ * <pre>profile_id,status,total_cost,node_count,edge_count,runtime_ms,edges</pre>
+ * where edges lists the tree as from-&gt;to pairs separated by ';'. Text fields are quoted as
+ * RFC 4180 requires when they contain a comma, quote or line break.
+ */
+public class BatchSolver {
+
+    /** Default cache bound: ten million tree nodes, roughly 200 MB. */
+    static final long DEFAULT_CACHE_NODES = 10_000_000L;
+
+    static final String OUTPUT_HEADER = "profile_id,status,total_cost,node_count,edge_count,runtime_ms,edges";
+
+    /**
+     * Usage: java BatchSolver &lt;graph.csv&gt; &lt;terminal_sets.txt&gt; [output.csv] [cache_nodes]
+     * Without an output file the results go to standard output.
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: java BatchSolver <graph.csv> <terminal_sets.txt> [output.csv] [cache_nodes]");
+            return;
+        }
+        long cacheNodes = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_CACHE_NODES;
+
+        SteinerGraph graph;
+        try {
+            graph = SteinerGraph.load(args[0]);
+        } catch (IOException e) {
+            System.err.println("Failed to load graph from CSV: " + e.getMessage());
+            return;
+        }
+        ShortestPathCache cache = new ShortestPathCache(graph, cacheNodes);
+
+        long startTime = System.currentTimeMillis();
+        int solved;
+        try (CsvRecordReader in = CsvRecordReader.open(Paths.get(args[1]));
+             PrintWriter out = args.length > 2
+                     ? new PrintWriter(new BufferedWriter(new FileWriter(args[2])))
+                     : new PrintWriter(new OutputStreamWriter(System.out))) {
+            solved = run(graph, in, out, cache);
+        } catch (IOException e) {
+            System.err.println("Batch failed: " + e.getMessage());
+            return;
+        }
+        long endTime = System.currentTimeMillis();
+
+        System.err.printf("Solved %d terminal sets in %d ms (cache: %d trees, hit rate %.1f%%)%n",
+                solved, endTime - startTime, cache.size(), cache.hitRate() * 100);
+    }
+
+    /**
+     * Reads terminal sets record by record, solves each with KMB against the shared cache, and
+     * writes (and flushes) its result line before reading the next. A set naming a course that is
+     * not in the graph is reported with status unknown_terminal and the batch continues.
+     * @param graph The shared course graph.
+     * @param in The terminal sets, one per record.
+     * @param out Where result lines are written, header first.
+     * @param cache The shared tree cache for this graph.
+     * @return The number of terminal sets processed.
+     * @throws IOException If reading the input fails or a quoted field is malformed.
+     */
+    public static int run(SteinerGraph graph, CsvRecordReader in, PrintWriter out, ShortestPathCache cache) throws IOException {
+        out.println(OUTPUT_HEADER);
+        out.flush();
+
+        int processed = 0;
+        while (in.nextRecord()) {
+            String profileId = in.field(0).trim();
+            if (profileId.startsWith("#")) continue;
+            if (profileId.isEmpty() && in.fieldCount() == 1) continue;
+
+            Set<String> terminals = new LinkedHashSet<>();
+            boolean unknown = false;
+            for (int i = 1; i < in.fieldCount(); i++) {
+                String terminal = in.field(i).trim();
+                if (terminal.isEmpty()) continue;
+                terminals.add(terminal);
+                if (!graph.hasNode(terminal)) unknown = true;
+            }
+
+            if (unknown) {
+                out.println(quote(profileId) + ",unknown_terminal,,,,,");
+            } else {
+                out.println(formatResult(profileId, KMBAlgorithm.solve(graph, terminals, cache)));
+            }
+            out.flush();
+            processed++;
+        }
+        return processed;
+    }
+
+    private static String formatResult(String profileId, SteinerResult result) {
+        StringJoiner edges = new StringJoiner(";");
+        for (SteinerGraph.Edge edge : result.getSteinerEdges()) {
+            edges.add(edge.from + "->" + edge.to);
+        }
+        return String.format("%s,ok,%.2f,%d,%d,%d,%s", quote(profileId), result.totalCost,
+                result.nodeCount(), result.edgeCount(), result.runtimeMs, quote(edges.toString()));
+    }
+
+    /**
+     * @return The value as one CSV field: wrapped in quotes, with quotes doubled, if it contains a
+     *         comma, quote or line break, otherwise unchanged.
+     */
+    private static String quote(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+        }
+        return value;
+    }
+}
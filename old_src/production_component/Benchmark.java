@@ -0,0 +1,244 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.function.BiFunction;
+
+/**
+ * Repeatable solver benchmark on one loaded graph. Each solver is run for a number of warm-up
+ * iterations (discarded, so the JIT has compiled the hot paths) and then for the measured
+ * iterations, timing only the solve call with System.nanoTime.
+ *
+ * KMB+Reduction times the reduction (see {@link GraphReducer}) together with the solve.
+ *
+ * Reported per solver: p50/p95/p99 solve latency, bytes allocated per solve (summed over all
+ * threads, since KMB step A runs on the common ForkJoinPool), collections and collector time
+ * during the measured iterations, and throughput.
+ */
+public class Benchmark {
+
+    static final int DEFAULT_WARMUP = 5;
+    static final int DEFAULT_ITERATIONS = 20;
+
+    static final String CSV_HEADER = "algorithm,iterations,total_cost,mean_ms,p50_ms,p95_ms,p99_ms,max_ms,"
+            + "alloc_bytes_per_solve,gc_count,gc_time_ms,solves_per_s";
+
+    /**
+     * Measurements of one solver.
+     */
+    static class Stats {
+        final String algorithm;
+        final int iterations;
+        final double totalCost;
+        final long[] sortedNanos;
+        final long allocatedBytes;
+        final long gcCount;
+        final long gcTimeMs;
+
+        Stats(String algorithm, int iterations, double totalCost, long[] sortedNanos, long allocatedBytes, long gcCount, long gcTimeMs) {
+            this.algorithm = algorithm;
+            this.iterations = iterations;
+            this.totalCost = totalCost;
+            this.sortedNanos = sortedNanos;
+            this.allocatedBytes = allocatedBytes;
+            this.gcCount = gcCount;
+            this.gcTimeMs = gcTimeMs;
+        }
+
+        /**
+         * @return The nearest-rank percentile of the measured latencies, in milliseconds.
+         */
+        double percentileMs(double p) {
+            int rank = (int) Math.ceil(p / 100.0 * sortedNanos.length);
+            return sortedNanos[Math.max(0, rank - 1)] / 1e6;
+        }
+
+        double meanMs() {
+            long sum = 0;
+            for (long t : sortedNanos) sum += t;
+            return sum / 1e6 / sortedNanos.length;
+        }
+
+        /**
+         * @return Bytes allocated per solve, or -1 if the JVM cannot report allocations.
+         */
+        long allocatedPerSolve() {
+            return allocatedBytes < 0 ? -1 : allocatedBytes / iterations;
+        }
+
+        double solvesPerSecond() {
+            long sum = 0;
+            for (long t : sortedNanos) sum += t;
+            return sum == 0 ? 0.0 : sortedNanos.length * 1e9 / sum;
+        }
+
+        String toCsv() {
+            return String.format(Locale.ROOT, "%s,%d,%.4f,%.3f,%.3f,%.3f,%.3f,%.3f,%d,%d,%d,%.2f",
+                    algorithm, iterations, totalCost, meanMs(), percentileMs(50), percentileMs(95), percentileMs(99),
+                    sortedNanos[sortedNanos.length - 1] / 1e6, allocatedPerSolve(), gcCount, gcTimeMs, solvesPerSecond());
+        }
+    }
+
+    // Keeps the JIT from discarding solves whose results are otherwise unused
+    private static double sink;
+
+    /**
+     * Usage: java Benchmark [--exact] &lt;graph.csv&gt; [warmup] [iterations] [output.csv]
+     * Without an output file the CSV goes to standard output after the table. Dreyfus-Wagner is
+     * only benchmarked with --exact.
+     */
+    public static void main(String[] args) {
+        List<String> options = new ArrayList<>(Arrays.asList(args));
+        boolean exact = options.remove("--exact");
+        args = options.toArray(new String[0]);
+        if (args.length < 1) {
+            System.err.println("Usage: java Benchmark [--exact] <graph.csv> [warmup] [iterations] [output.csv]");
+            return;
+        }
+        int warmup = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_WARMUP;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_ITERATIONS;
+        String outputPath = args.length > 3 ? args[3] : null;
+
+        SteinerGraph graph;
+        try {
+            graph = SteinerGraph.load(args[0]);
+        } catch (IOException e) {
+            System.err.println("Failed to load graph from CSV: " + e.getMessage());
+            return;
+        }
+        run(graph, warmup, iterations, outputPath, exact);
+    }
+
+    /**
+     * Benchmarks every solver on the graph's own terminal set, prints a comparison table and
+     * writes the same numbers as CSV.
+     * @param graph The loaded graph.
+     * @param warmup Discarded iterations per solver.
+     * @param iterations Measured iterations per solver.
+     * @param outputPath Where to write the CSV, or null for standard output.
+     * @param exact Whether to include Dreyfus-Wagner (when the terminal set is small enough).
+     */
+    public static void run(SteinerGraph graph, int warmup, int iterations, String outputPath, boolean exact) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("At least one measured iteration is required");
+        }
+        Map<String, BiFunction<SteinerGraph, Set<String>, SteinerResult>> solvers = new LinkedHashMap<>();
+        solvers.put("KMB", KMBAlgorithm::solve);
+        solvers.put("KMB-Mehlhorn", KMBAlgorithm::solveMehlhorn);
+        solvers.put("TM", TakahashiMatsuyama::solve);
+        solvers.put("KMB+Reduction", (g, t) -> GraphReducer.solve(g, t, KMBAlgorithm::solve));
+        if (exact && DreyfusWagner.isFeasible(graph, graph.terminals.size())) {
+            solvers.put("Dreyfus-Wagner", DreyfusWagner::solve);
+        }
+
+        System.out.println("Benchmarking on " + graph.nodeCount() + " nodes, " + graph.edgeCount() + " edges, "
+                + graph.terminals.size() + " terminals (" + warmup + " warm-up, " + iterations + " measured iterations)\n");
+
+        List<Stats> results = new ArrayList<>();
+        for (Map.Entry<String, BiFunction<SteinerGraph, Set<String>, SteinerResult>> entry : solvers.entrySet()) {
+            results.add(measure(entry.getKey(), entry.getValue(), graph, warmup, iterations));
+        }
+
+        printTable(results);
+
+        if (outputPath == null) {
+            System.out.println();
+            System.out.println(CSV_HEADER);
+            for (Stats stats : results) System.out.println(stats.toCsv());
+        } else {
+            try (PrintWriter out = new PrintWriter(new FileWriter(outputPath))) {
+                out.println(CSV_HEADER);
+                for (Stats stats : results) out.println(stats.toCsv());
+            } catch (IOException e) {
+                System.err.println("Could not write benchmark CSV: " + e.getMessage());
+                return;
+            }
+            System.out.println("\nBenchmark CSV written to: " + outputPath);
+        }
+    }
+
+    private static Stats measure(String algorithm, BiFunction<SteinerGraph, Set<String>, SteinerResult> solver,
+                                 SteinerGraph graph, int warmup, int iterations) {
+        for (int i = 0; i < warmup; i++) {
+            sink += cost(solver.apply(graph, graph.terminals));
+        }
+
+        long[] nanos = new long[iterations];
+        double totalCost = 0;
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcTimeMs();
+        long allocatedBefore = allocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            SteinerResult result = solver.apply(graph, graph.terminals);
+            nanos[i] = System.nanoTime() - start;
+            totalCost = cost(result);
+            sink += totalCost;
+        }
+        long allocated = allocatedBefore < 0 ? -1 : Math.max(0, allocatedBytes() - allocatedBefore);
+        long gcCount = gcCount() - gcCountBefore;
+        long gcTime = gcTimeMs() - gcTimeBefore;
+
+        Arrays.sort(nanos);
+        return new Stats(algorithm, iterations, totalCost, nanos, allocated, gcCount, gcTime);
+    }
+
+    /**
+     * @return The result's cost, or NaN when the solver found the terminals disconnected.
+     */
+    private static double cost(SteinerResult result) {
+        return result == null ? Double.NaN : result.totalCost;
+    }
+
+    private static void printTable(List<Stats> results) {
+        System.out.println("=============================== SOLVER BENCHMARK ===============================");
+        System.out.println("| Algorithm        | Cost       | p50 (ms) | p95 (ms) | p99 (ms) | Alloc/solve | GCs | Solves/s |");
+        System.out.println("|------------------|------------|----------|----------|----------|-------------|-----|----------|");
+        for (Stats s : results) {
+            System.out.printf("| %-16s | %-10.2f | %-8.2f | %-8.2f | %-8.2f | %-11s | %-3d | %-8.1f |\n",
+                    s.algorithm, s.totalCost, s.percentileMs(50), s.percentileMs(95), s.percentileMs(99),
+                    formatBytes(s.allocatedPerSolve()), s.gcCount, s.solvesPerSecond());
+        }
+        System.out.println("|------------------|------------|----------|----------|----------|-------------|-----|----------|");
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 0) return "n/a";
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format("%.1f KB", bytes / 1024.0);
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    /**
+     * @return Bytes allocated so far by all live threads, or -1 if the JVM cannot report it.
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) return -1;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled()) return -1;
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) total += bytes;
+        }
+        return total;
+    }
+
+    private static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+
+    private static long gcTimeMs() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+}
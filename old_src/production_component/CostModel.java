@@ -0,0 +1,47 @@
+/**
+ * Turns the columns of one CSV row into the single cost the solvers minimise.
+ *
+ * A model is evaluated once per row when a graph is compiled (see
+ * {@link SteinerGraph#load(String, CostModel)} and {@link SteinerGraph#withCostModel}); the results
+ * are stored in the graph's flat cost arrays and the solvers read only those, so switching the
+ * objective adds nothing to solve time. A model sees each row's forward edge, so both directions
+ * of an edge cost the same. Costs must be finite and non-negative.
+ */
+@FunctionalInterface
+public interface CostModel {
+
+    /**
+     * @param edge The forward edge of a CSV row.
+     * @return The cost of using that edge in a tree.
+     */
+    double cost(SteinerGraph.Edge edge);
+
+    /** The edge_weight column unchanged. The default model. */
+    CostModel WEIGHT = edge -> edge.weight;
+
+    /** The estimated_hours column: minimises total study time. */
+    CostModel HOURS = edge -> edge.estimatedHours;
+
+    /**
+     * A weighted sum of the columns advisors combine:
+     * <pre>
+     * weight * edge_weight
+     *   + hours * estimated_hours
+     *   + difficulty * mean(from_difficulty, to_difficulty)
+     *   + overlap * (1 - overlap_score)
+     *   + hardPrerequisite * (is_prerequisite_hard ? 1 : 0)
+     * </pre>
+     * A low overlap score makes an edge dearer, since its courses share less material.
+     * @throws IllegalArgumentException If a coefficient is negative.
+     */
+    static CostModel linear(double weight, double hours, double difficulty, double overlap, double hardPrerequisite) {
+        if (weight < 0 || hours < 0 || difficulty < 0 || overlap < 0 || hardPrerequisite < 0) {
+            throw new IllegalArgumentException("Cost model coefficients must be non-negative");
+        }
+        return edge -> weight * edge.weight
+                + hours * edge.estimatedHours
+                + difficulty * (edge.fromDifficulty + edge.toDifficulty) / 2.0
+                + overlap * (1.0 - edge.overlapScore)
+                + (edge.isPrerequisiteHard ? hardPrerequisite : 0.0);
+    }
+}
@@ -0,0 +1,310 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A streaming RFC-4180 CSV reader that decodes fields straight from the file's bytes.
+ *
+ * The file is read through a FileChannel into one reusable buffer, and each record's fields are
+ * unquoted into one reusable byte array, so a record costs no allocation beyond the values it
+ * returns. Numbers are parsed from the bytes without building a String first. Text fields are
+ * interned by their bytes: a course ID or category that repeats on every row becomes one String
+ * that all rows share.
+ *
+ * Supported: quoted fields with embedded commas, quotes ("") and line breaks; LF and CRLF
+ * line endings; a leading UTF-8 byte order mark. Blank lines are skipped.
+ */
+final class CsvRecordReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int EOF = -1;
+    /** 10^0 .. 10^22, all exactly representable as doubles. */
+    private static final double[] POWERS_OF_TEN = new double[23];
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final byte[] bytes;
+    private int position;
+    private int limit;
+    private boolean endOfInput;
+
+    // The current record: field i is record[fieldStart[i] .. fieldEnd[i] - 1], already unquoted
+    private byte[] record = new byte[256];
+    private int recordLength;
+    private int[] fieldStart = new int[16];
+    private int[] fieldEnd = new int[16];
+    private int fieldCount;
+    private long recordNumber;
+
+    // Open-addressing intern table keyed by field bytes
+    private byte[][] internKeys = new byte[1024][];
+    private String[] internValues = new String[1024];
+    private int internSize;
+
+    private CsvRecordReader(FileChannel channel) {
+        this.channel = channel;
+        this.bytes = new byte[BUFFER_SIZE];
+        this.buffer = ByteBuffer.wrap(bytes);
+    }
+
+    /**
+     * Opens a CSV file for reading.
+     * @param path The file to read.
+     * @return A reader positioned before the first record.
+     * @throws IOException If the file cannot be opened.
+     */
+    static CsvRecordReader open(Path path) throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(FileChannel.open(path, StandardOpenOption.READ));
+        reader.skipByteOrderMark();
+        return reader;
+    }
+
+    /**
+     * Advances to the next record.
+     * @return false once the input is exhausted.
+     * @throws IOException If reading fails or a quoted field is malformed.
+     */
+    boolean nextRecord() throws IOException {
+        int c = read();
+        while (c == '\n' || c == '\r') c = read();
+        if (c == EOF) return false;
+
+        recordNumber++;
+        recordLength = 0;
+        fieldCount = 0;
+        while (true) {
+            int start = recordLength;
+            if (c == '"') {
+                while (true) {
+                    c = read();
+                    if (c == EOF) {
+                        throw new IOException("Unterminated quoted field in record " + recordNumber);
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') break; // closing quote; "" is an escaped quote
+                    }
+                    append(c);
+                }
+                if (c != ',' && c != '\n' && c != '\r' && c != EOF) {
+                    throw new IOException("Unexpected character after quoted field in record " + recordNumber);
+                }
+            } else {
+                while (c != ',' && c != '\n' && c != '\r' && c != EOF) {
+                    append(c);
+                    c = read();
+                }
+            }
+            endField(start);
+            if (c != ',') return true;
+            c = read();
+        }
+    }
+
+    int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * @return The 1-based number of the current record, for error messages.
+     */
+    long recordNumber() {
+        return recordNumber;
+    }
+
+    /**
+     * @return Field i as a String, shared with every other field holding the same bytes.
+     */
+    String field(int i) {
+        return intern(fieldStart[i], fieldEnd[i]);
+    }
+
+    /**
+     * Parses field i as an int.
+     * @throws NumberFormatException If the field is not a decimal integer.
+     */
+    int intField(int i) {
+        int p = fieldStart[i];
+        int end = fieldEnd[i];
+        boolean negative = p < end && record[p] == '-';
+        if (negative || (p < end && record[p] == '+')) p++;
+        if (p == end || end - p > 9) {
+            return Integer.parseInt(text(i));
+        }
+        int value = 0;
+        for (; p < end; p++) {
+            int digit = record[p] - '0';
+            if (digit < 0 || digit > 9) throw new NumberFormatException("For input string: \"" + text(i) + "\"");
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses field i as a double. Plain decimals of up to 15 significant digits are converted
+     * exactly from the bytes; anything else (exponents, NaN, longer mantissas) goes through
+     * {@link Double#parseDouble}, so the result always matches it.
+     * @throws NumberFormatException If the field is not a number.
+     */
+    double doubleField(int i) {
+        int p = fieldStart[i];
+        int end = fieldEnd[i];
+        boolean negative = p < end && record[p] == '-';
+        if (negative || (p < end && record[p] == '+')) p++;
+
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean seenPoint = false;
+        boolean seenDigit = false;
+        for (; p < end; p++) {
+            byte b = record[p];
+            if (b >= '0' && b <= '9') {
+                seenDigit = true;
+                if (mantissa == 0 && b == '0') {
+                    if (seenPoint) fractionDigits++;
+                    continue;
+                }
+                if (++digits > 15) break;
+                mantissa = mantissa * 10 + (b - '0');
+                if (seenPoint) fractionDigits++;
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                break;
+            }
+        }
+        if (p != end || !seenDigit || fractionDigits > 22) {
+            return Double.parseDouble(text(i));
+        }
+        // Both operands are exact doubles, so one division is correctly rounded
+        double value = fractionDigits == 0 ? mantissa : mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses field i like {@link Boolean#parseBoolean}: true only for "true", ignoring case.
+     */
+    boolean booleanField(int i) {
+        int p = fieldStart[i];
+        if (fieldEnd[i] - p != 4) return false;
+        return (record[p] | 0x20) == 't' && (record[p + 1] | 0x20) == 'r'
+                && (record[p + 2] | 0x20) == 'u' && (record[p + 3] | 0x20) == 'e';
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // =================================================================================
+    // BYTE INPUT
+    // =================================================================================
+
+    private int read() throws IOException {
+        if (position == limit) {
+            if (endOfInput || !fill()) return EOF;
+        }
+        return bytes[position++] & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        buffer.clear();
+        int n;
+        do {
+            n = channel.read(buffer);
+        } while (n == 0);
+        if (n < 0) {
+            endOfInput = true;
+            return false;
+        }
+        position = 0;
+        limit = n;
+        return true;
+    }
+
+    private void skipByteOrderMark() throws IOException {
+        if (!fill()) return;
+        if (limit >= 3 && (bytes[0] & 0xFF) == 0xEF && (bytes[1] & 0xFF) == 0xBB && (bytes[2] & 0xFF) == 0xBF) {
+            position = 3;
+        }
+    }
+
+    private void append(int c) {
+        if (recordLength == record.length) record = Arrays.copyOf(record, recordLength * 2);
+        record[recordLength++] = (byte) c;
+    }
+
+    private void endField(int start) {
+        if (fieldCount == fieldStart.length) {
+            fieldStart = Arrays.copyOf(fieldStart, fieldCount * 2);
+            fieldEnd = Arrays.copyOf(fieldEnd, fieldCount * 2);
+        }
+        fieldStart[fieldCount] = start;
+        fieldEnd[fieldCount] = recordLength;
+        fieldCount++;
+    }
+
+    private String text(int i) {
+        return new String(record, fieldStart[i], fieldEnd[i] - fieldStart[i], StandardCharsets.UTF_8);
+    }
+
+    // =================================================================================
+    // INTERNING
+    // =================================================================================
+
+    private String intern(int start, int end) {
+        int hash = 0;
+        for (int p = start; p < end; p++) hash = 31 * hash + record[p];
+        int mask = internKeys.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            byte[] key = internKeys[slot];
+            if (key == null) {
+                String value = new String(record, start, end - start, StandardCharsets.UTF_8);
+                internKeys[slot] = Arrays.copyOfRange(record, start, end);
+                internValues[slot] = value;
+                if (++internSize * 2 > internKeys.length) growInternTable();
+                return value;
+            }
+            if (Arrays.equals(key, 0, key.length, record, start, end)) {
+                return internValues[slot];
+            }
+        }
+    }
+
+    private void growInternTable() {
+        byte[][] oldKeys = internKeys;
+        String[] oldValues = internValues;
+        internKeys = new byte[oldKeys.length * 2][];
+        internValues = new String[oldKeys.length * 2];
+        int mask = internKeys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            byte[] key = oldKeys[i];
+            if (key == null) continue;
+            int hash = 0;
+            for (byte b : key) hash = 31 * hash + b;
+            int slot = mix(hash) & mask;
+            while (internKeys[slot] != null) slot = (slot + 1) & mask;
+            internKeys[slot] = key;
+            internValues[slot] = oldValues[i];
+        }
+    }
+
+    /**
+     * Spreads the polynomial hash: IDs like C1, C2, ... have nearly consecutive hashes, which
+     * would form long runs under linear probing.
+     */
+    private static int mix(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
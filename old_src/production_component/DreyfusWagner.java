@@ -0,0 +1,243 @@
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Exact Steiner tree solver for small terminal sets (Dreyfus-Wagner, in the Erickson-Monma-Veinott
+ * form that relaxes each subset over the graph instead of a V x V distance matrix).
+ *
+ * dp[S][v] is the cost of the cheapest tree connecting the terminal subset S and node v. One
+ * terminal is fixed as the root and left out of the subsets, which halves the table; the answer
+ * is dp[all other terminals][root]. Subsets are processed in layers of equal size, and every
+ * subset in a layer only reads smaller ones, so each layer runs in parallel across cores.
+ * Every entry also records how it was reached (the split of a merge, or the arc of a relaxation),
+ * so the tree is read back by following those records rather than by re-matching costs, which
+ * would stall on zero-cost edges.
+ * Time O(3^k V + 2^k (E + V log V)), memory 2^(k-1) V doubles plus as many ints.
+ */
+public final class DreyfusWagner {
+
+    /** The DP table grows as 2^(k-1); beyond this many terminals it is never attempted. */
+    public static final int MAX_TERMINALS = 20;
+    /** Largest DP table allowed, in entries (1 GB of costs plus 512 MB of predecessors). */
+    static final long MAX_TABLE_ENTRIES = 1L << 27;
+
+    private static final double EPSILON = 1e-9;
+
+    /** via entry of a terminal's own singleton entry. */
+    private static final int VIA_TERMINAL = -1;
+    /** via entry of a node no tree reaches. */
+    private static final int VIA_NONE = Integer.MIN_VALUE;
+
+    private DreyfusWagner() {
+    }
+
+    /**
+     * @return true if an exact solve of this many terminals on this graph fits the table limits.
+     */
+    public static boolean isFeasible(SteinerGraph graph, int terminalCount) {
+        if (terminalCount <= 1) return true;
+        if (terminalCount > MAX_TERMINALS) return false;
+        return (1L << (terminalCount - 1)) * graph.nodeCount() <= MAX_TABLE_ENTRIES;
+    }
+
+    /**
+     * Computes a minimum-cost Steiner tree.
+     * @param graph The shared course graph.
+     * @param terminals The courses the tree must connect; all must exist in the graph.
+     * @return The optimal tree, or null if the terminals are not all connected.
+     * @throws IllegalArgumentException If a terminal is unknown or the instance is too large (see {@link #isFeasible}).
+     */
+    public static SteinerResult solve(SteinerGraph graph, Set<String> terminals) {
+        for (String terminal : terminals) {
+            if (!graph.hasNode(terminal)) {
+                throw new IllegalArgumentException("Unknown terminal: " + terminal);
+            }
+        }
+        if (!isFeasible(graph, terminals.size())) {
+            throw new IllegalArgumentException("Too many terminals for an exact solve: " + terminals.size());
+        }
+        long startTime = System.currentTimeMillis();
+
+        List<String> terminalList = new ArrayList<>(terminals);
+        if (terminalList.size() <= 1) {
+            return new SteinerResult(graph, new int[0], terminals, System.currentTimeMillis() - startTime);
+        }
+
+        // STEP A: Fix the last terminal as the root; the others are bits 0..k-1 of a subset
+        int root = graph.indexOf(terminalList.get(terminalList.size() - 1));
+        int k = terminalList.size() - 1;
+        int[] terminalIndex = new int[k];
+        for (int i = 0; i < k; i++) {
+            terminalIndex[i] = graph.indexOf(terminalList.get(i));
+        }
+
+        // STEP B: Fill the table layer by layer; singletons are plain shortest-path distances
+        int n = graph.nodeCount();
+        double[][] dp = new double[1 << k][];
+        // via[S][v]: a directed edge id (>= 0) for a relaxation, -(A + 1) for a merge of A and
+        // S - A, VIA_TERMINAL for a singleton's own terminal
+        int[][] via = new int[1 << k][];
+        List<List<Integer>> layers = new ArrayList<>();
+        for (int size = 0; size <= k; size++) layers.add(new ArrayList<>());
+        for (int subset = 1; subset < (1 << k); subset++) {
+            layers.get(Integer.bitCount(subset)).add(subset);
+        }
+
+        for (int size = 1; size <= k; size++) {
+            List<Integer> layer = layers.get(size);
+            IntStream.range(0, layer.size()).parallel().forEach(i -> {
+                int subset = layer.get(i);
+                double[] row = new double[n];
+                int[] viaRow = new int[n];
+                Arrays.fill(row, Double.POSITIVE_INFINITY);
+                Arrays.fill(viaRow, VIA_NONE);
+                if (Integer.bitCount(subset) == 1) {
+                    int terminal = terminalIndex[Integer.numberOfTrailingZeros(subset)];
+                    row[terminal] = 0.0;
+                    viaRow[terminal] = VIA_TERMINAL;
+                } else {
+                    merge(dp, subset, row, viaRow);
+                }
+                relax(graph, row, viaRow);
+                dp[subset] = row;
+                via[subset] = viaRow;
+            });
+        }
+
+        int full = (1 << k) - 1;
+        if (dp[full][root] == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+
+        // STEP C: Follow the recorded predecessors back from (all terminals, root)
+        BitSet rows = reconstruct(graph, via, full, root);
+        int[] treeRows = spanningTree(graph, rows, terminals);
+        double cost = 0.0;
+        for (int row : treeRows) cost += graph.edgeCost[row];
+        if (Math.abs(cost - dp[full][root]) > EPSILON * Math.max(1.0, dp[full][root])) {
+            throw new IllegalStateException("Reconstructed tree costs " + cost + " but the table gives " + dp[full][root]);
+        }
+
+        // STEP D: Package results
+        long endTime = System.currentTimeMillis();
+        return new SteinerResult(graph, treeRows, terminals, endTime - startTime);
+    }
+
+    /**
+     * dp[S][v] = min over splits S = A + B of dp[A][v] + dp[B][v]. Only splits where A holds the
+     * lowest bit of S are enumerated, so each unordered split is tried once.
+     */
+    private static void merge(double[][] dp, int subset, double[] row, int[] viaRow) {
+        int low = subset & -subset;
+        int rest = subset ^ low;
+        // A = low | sub for every proper submask sub of rest (sub = rest would make B empty)
+        for (int sub = (rest - 1) & rest; ; sub = (sub - 1) & rest) {
+            double[] a = dp[low | sub];
+            double[] b = dp[subset ^ (low | sub)];
+            int split = -((low | sub) + 1);
+            for (int v = 0; v < row.length; v++) {
+                double c = a[v] + b[v];
+                if (c < row[v]) {
+                    row[v] = c;
+                    viaRow[v] = split;
+                }
+            }
+            if (sub == 0) break;
+        }
+    }
+
+    /**
+     * Dijkstra seeded with every finite entry of row: afterwards row[v] also covers trees that
+     * reach v by a path from a cheaper merge point. An improved entry records the arc it came by;
+     * entries only change on a strict improvement, so the records never form a cycle.
+     */
+    private static void relax(SteinerGraph graph, double[] row, int[] viaRow) {
+        ShortestPaths.Heap heap = new ShortestPaths.Heap();
+        for (int v = 0; v < row.length; v++) {
+            if (row[v] < Double.POSITIVE_INFINITY) heap.push(row[v], v);
+        }
+        while (!heap.isEmpty()) {
+            double du = heap.peekKey();
+            int u = heap.pop();
+            if (du > row[u]) continue;
+            for (int a = graph.arcStart[u]; a < graph.arcStart[u + 1]; a++) {
+                int v = graph.arcTarget[a];
+                double nd = du + graph.arcWeight[a];
+                if (nd < row[v]) {
+                    row[v] = nd;
+                    viaRow[v] = graph.arcId[a];
+                    heap.push(nd, v);
+                }
+            }
+        }
+    }
+
+    /**
+     * Follows the recorded predecessors: a merge pushes both halves at the same node, a relaxation
+     * adds its edge and moves to the edge's tail. Each step shrinks the subset or moves along an
+     * acyclic predecessor chain, so the walk terminates.
+     * @return The rows (undirected edge ids) used by the optimal tree.
+     */
+    private static BitSet reconstruct(SteinerGraph graph, int[][] via, int full, int root) {
+        BitSet rows = new BitSet();
+        Deque<long[]> stack = new ArrayDeque<>();
+        stack.push(new long[]{full, root});
+
+        while (!stack.isEmpty()) {
+            long[] state = stack.pop();
+            int subset = (int) state[0];
+            int v = (int) state[1];
+            int step = via[subset][v];
+            if (step >= 0) {
+                rows.set(step >>> 1);
+                stack.push(new long[]{subset, graph.edgeTail(step)});
+            } else if (step != VIA_TERMINAL) {
+                int a = -step - 1;
+                stack.push(new long[]{a, v});
+                stack.push(new long[]{subset ^ a, v});
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Branches of the table can share nodes, and with zero-cost edges their union can close a
+     * cycle. Keeps a spanning forest of the rows, cheapest first, then prunes non-terminal
+     * leaves; neither step adds cost or disconnects a terminal.
+     * @return The tree's rows.
+     */
+    private static int[] spanningTree(SteinerGraph graph, BitSet rows, Set<String> terminals) {
+        Integer[] order = rows.stream().boxed().toArray(Integer[]::new);
+        Arrays.sort(order, Comparator.comparingDouble(row -> graph.edgeCost[row]));
+        KMBAlgorithm.UnionFind uf = new KMBAlgorithm.UnionFind(graph.nodeCount());
+        BitSet tree = new BitSet();
+        int[] degree = new int[graph.nodeCount()];
+        for (int row : order) {
+            int head = graph.edgeHead[2 * row];
+            int tail = graph.edgeHead[2 * row + 1];
+            if (uf.union(head, tail)) {
+                tree.set(row);
+                degree[head]++;
+                degree[tail]++;
+            }
+        }
+
+        boolean[] isTerminal = new boolean[graph.nodeCount()];
+        for (String terminal : terminals) isTerminal[graph.indexOf(terminal)] = true;
+        boolean pruned = true;
+        while (pruned) {
+            pruned = false;
+            for (int row = tree.nextSetBit(0); row >= 0; row = tree.nextSetBit(row + 1)) {
+                int head = graph.edgeHead[2 * row];
+                int tail = graph.edgeHead[2 * row + 1];
+                if ((degree[head] == 1 && !isTerminal[head]) || (degree[tail] == 1 && !isTerminal[tail])) {
+                    tree.clear(row);
+                    degree[head]--;
+                    degree[tail]--;
+                    pruned = true;
+                }
+            }
+        }
+        return tree.stream().toArray();
+    }
+}
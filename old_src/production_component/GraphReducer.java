@@ -0,0 +1,568 @@
+import java.util.*;
+import java.util.function.BiFunction;
+
+/**
+ * Shrinks a graph for one terminal set before any solver runs, using reductions that never
+ * remove every optimal tree:
+ * <ul>
+ *   <li>Parallel edges: only the cheapest edge between two courses is kept, and self-loops are
+ *       dropped.</li>
+ *   <li>Non-terminal leaves: a course that is not a terminal and has one edge can only end a
+ *       branch that serves nothing, so it and its edge go. Repeated until none are left, which
+ *       also removes whole dead-end subtrees.</li>
+ *   <li>Non-terminal degree-2 chains: a course that is not a terminal and has two edges is
+ *       either passed through or unused, so its two edges are replaced by one edge carrying
+ *       their summed cost. Chains collapse one course at a time.</li>
+ *   <li>Long edges: an edge dearer than some other path between its endpoints is never needed.</li>
+ *   <li>Special distance: an edge dearer than the bottleneck Steiner distance between its
+ *       endpoints (the longest terminal-free stretch of some other path between them) is never
+ *       needed either. This removes edges the long-edge test keeps whenever terminals lie
+ *       between the endpoints.</li>
+ * </ul>
+ * The two edge tests search only a bounded neighbourhood, so they may miss a removal but never
+ * make a wrong one. Removing leaves and contracting chains never shortens a path between the
+ * nodes that remain, so an edge that passes the tests once keeps passing them; after the first
+ * pass only the edges new contractions create are tested, until no more are created.
+ *
+ * The reduced graph is an ordinary {@link SteinerGraph} any solver accepts. Every reduced edge
+ * remembers the original rows it stands for, and {@link Reduction#expand} turns a tree found on
+ * the reduced graph back into a tree on the original graph with the same cost.
+ */
+public final class GraphReducer {
+
+    /**
+     * Edges a long-edge or special-distance search may scan before it gives up. Counting edges
+     * rather than nodes keeps a search that reaches a hub as cheap as any other.
+     */
+    static final int TEST_SCAN_LIMIT = 256;
+
+    /** Margin a test path must win by, so rounding in summed costs never decides a removal. */
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * A reduced graph together with what is needed to map its trees back.
+     */
+    public static final class Reduction {
+        public final SteinerGraph original;
+        public final SteinerGraph reduced;
+        final Set<String> terminals;
+        final long reductionMs;
+        final int removedParallel, removedLeaves, contractedNodes, removedLongEdges, removedSpecialDistance;
+
+        /** Working edge behind each row of the reduced graph. */
+        private final int[] workingEdge;
+        /** Contraction tree over working edges: ids below the original row count are the rows. */
+        private final int[] left, right;
+
+        private Reduction(GraphReducer r, SteinerGraph reduced, int[] workingEdge, long reductionMs) {
+            this.original = r.graph;
+            this.reduced = reduced;
+            this.terminals = r.terminals;
+            this.reductionMs = reductionMs;
+            this.removedParallel = r.removedParallel;
+            this.removedLeaves = r.removedLeaves;
+            this.contractedNodes = r.contractedNodes;
+            this.removedLongEdges = r.removedLongEdges;
+            this.removedSpecialDistance = r.removedSpecialDistance;
+            this.workingEdge = workingEdge;
+            this.left = Arrays.copyOf(r.left, r.edgeCount);
+            this.right = Arrays.copyOf(r.right, r.edgeCount);
+        }
+
+        /**
+         * Maps a tree on the reduced graph to the original graph, replacing each contracted edge
+         * with the chain of rows it stands for.
+         * @param reducedResult A tree solved on {@link #reduced}, or null.
+         * @return The same tree on the original graph, or null if reducedResult is null. Its
+         *         runtime includes the reduction.
+         */
+        public SteinerResult expand(SteinerResult reducedResult) {
+            if (reducedResult == null) return null;
+            BitSet rows = new BitSet(original.edgeCount());
+            for (int row : reducedResult.edgeRows) {
+                addOriginalRows(workingEdge[row], rows);
+            }
+            return SteinerResult.fromRows(original, rows, terminals, reductionMs + reducedResult.runtimeMs);
+        }
+
+        private void addOriginalRows(int edge, BitSet rows) {
+            int originalRows = original.edgeCount();
+            ArrayDeque<Integer> stack = new ArrayDeque<>();
+            stack.push(edge);
+            while (!stack.isEmpty()) {
+                int e = stack.pop();
+                if (e < originalRows) {
+                    rows.set(e);
+                } else {
+                    stack.push(left[e]);
+                    stack.push(right[e]);
+                }
+            }
+        }
+
+        /**
+         * @return One line with the graph sizes before and after and the work of each reduction.
+         */
+        public String summary() {
+            return String.format("%d nodes, %d edges -> %d nodes, %d edges in %d ms "
+                            + "(parallel %d, leaves %d, chains %d, long edges %d, special distance %d)",
+                    original.nodeCount(), original.edgeCount(), reduced.nodeCount(), reduced.edgeCount(), reductionMs,
+                    removedParallel, removedLeaves, contractedNodes, removedLongEdges, removedSpecialDistance);
+        }
+    }
+
+    /**
+     * Reduces the graph for the terminal set.
+     * @param graph The loaded graph.
+     * @param terminals The terminals to keep connected.
+     * @return The reduced graph and its mapping back to the original.
+     * @throws IllegalArgumentException If a terminal is not in the graph.
+     */
+    public static Reduction reduce(SteinerGraph graph, Set<String> terminals) {
+        long startTime = System.currentTimeMillis();
+        GraphReducer reducer = new GraphReducer(graph, terminals);
+        reducer.run();
+        return reducer.build(startTime);
+    }
+
+    /**
+     * Reduces the graph, runs a solver on the result and maps its tree back.
+     * @param graph The loaded graph.
+     * @param terminals The terminals to connect.
+     * @param solver Any solver, such as KMBAlgorithm::solve.
+     * @return The tree on the original graph, or null if the solver found none.
+     */
+    public static SteinerResult solve(SteinerGraph graph, Set<String> terminals,
+                                      BiFunction<SteinerGraph, Set<String>, SteinerResult> solver) {
+        Reduction reduction = reduce(graph, terminals);
+        return reduction.expand(solver.apply(reduction.reduced, terminals));
+    }
+
+    // =================================================================================
+    // WORKING GRAPH
+    // =================================================================================
+
+    private final SteinerGraph graph;
+    private final Set<String> terminals;
+    private final boolean[] isTerminal;
+    private final boolean[] removedNode;
+
+    // Working edges: the original rows first, then one per contraction
+    private int edgeCount;
+    private int[] head, tail, left, right;
+    private double[] cost;
+    private boolean[] alive;
+
+    // Incident working edges per node; dead entries are dropped lazily by compact()
+    private final int[][] incident;
+    private final int[] incidentSize;
+    private final int[] degree;
+
+    private final ArrayDeque<Integer> queue = new ArrayDeque<>();
+    private final boolean[] queued;
+
+    // Search state for the edge tests, valid while stamp[v] equals round
+    private final double[] dist;
+    private final double[] bottleneck;
+    private final int[] stamp;
+    private final boolean[] settled;
+    private final ShortestPaths.Heap heap = new ShortestPaths.Heap();
+    private int round;
+    private boolean reachedTerminal;
+
+    private int removedParallel, removedLeaves, contractedNodes, removedLongEdges, removedSpecialDistance;
+
+    private GraphReducer(SteinerGraph graph, Set<String> terminals) {
+        this.graph = graph;
+        this.terminals = terminals;
+        int n = graph.nodeCount();
+        int m = graph.edgeCount();
+        this.isTerminal = new boolean[n];
+        for (String terminal : terminals) {
+            int node = graph.indexOf(terminal);
+            if (node < 0) {
+                throw new IllegalArgumentException("Unknown terminal: " + terminal);
+            }
+            isTerminal[node] = true;
+        }
+        this.removedNode = new boolean[n];
+        this.queued = new boolean[n];
+        this.degree = new int[n];
+        this.incidentSize = new int[n];
+        this.incident = new int[n][];
+        for (int v = 0; v < n; v++) {
+            incident[v] = new int[graph.arcStart[v + 1] - graph.arcStart[v]];
+        }
+        this.dist = new double[n];
+        this.bottleneck = new double[n];
+        this.stamp = new int[n];
+        this.settled = new boolean[n];
+
+        int capacity = Math.max(16, m + m / 2);
+        this.head = new int[capacity];
+        this.tail = new int[capacity];
+        this.left = new int[capacity];
+        this.right = new int[capacity];
+        this.cost = new double[capacity];
+        this.alive = new boolean[capacity];
+        for (int row = 0; row < m; row++) {
+            int id = addEdge(graph.edgeHead[2 * row + 1], graph.edgeHead[2 * row], graph.edgeCost[row], -1, -1);
+            if (head[id] == tail[id]) {
+                kill(id);
+                removedParallel++;
+            }
+        }
+    }
+
+    private void run() {
+        removeParallelEdges();
+        for (int v = 0; v < removedNode.length; v++) enqueue(v);
+        drainQueue();
+        int tested = 0;
+        while (tested < edgeCount) {
+            int end = edgeCount;
+            testEdges(tested, end);
+            tested = end;
+            drainQueue();
+        }
+    }
+
+    // =================================================================================
+    // NODE REDUCTIONS
+    // =================================================================================
+
+    /**
+     * Keeps the cheapest edge between each pair of nodes, preferring the earlier row on ties.
+     */
+    private void removeParallelEdges() {
+        int[] seenFrom = new int[removedNode.length];
+        int[] seenEdge = new int[removedNode.length];
+        Arrays.fill(seenFrom, -1);
+        for (int u = 0; u < removedNode.length; u++) {
+            for (int i = 0; i < incidentSize[u]; i++) {
+                int e = incident[u][i];
+                if (!alive[e]) continue;
+                int w = other(e, u);
+                if (seenFrom[w] != u || !alive[seenEdge[w]]) {
+                    seenFrom[w] = u;
+                    seenEdge[w] = e;
+                    continue;
+                }
+                int kept = seenEdge[w];
+                if (cost[e] < cost[kept]) {
+                    kill(kept);
+                    seenEdge[w] = e;
+                } else {
+                    kill(e);
+                }
+                removedParallel++;
+            }
+        }
+    }
+
+    private void drainQueue() {
+        while (!queue.isEmpty()) {
+            int v = queue.poll();
+            queued[v] = false;
+            reduceNode(v);
+        }
+    }
+
+    private void reduceNode(int v) {
+        if (removedNode[v] || isTerminal[v]) return;
+        compact(v);
+        if (degree[v] == 0) {
+            removedNode[v] = true;
+        } else if (degree[v] == 1) {
+            kill(incident[v][0]);
+            removedNode[v] = true;
+            removedLeaves++;
+        } else if (degree[v] == 2) {
+            contract(v, incident[v][0], incident[v][1]);
+        }
+    }
+
+    /**
+     * Replaces the two edges of a non-terminal node with one edge between its neighbours. When
+     * the neighbours are already joined, only the cheaper of the two connections stays.
+     */
+    private void contract(int v, int first, int second) {
+        int u = other(first, v);
+        int w = other(second, v);
+        kill(first);
+        kill(second);
+        removedNode[v] = true;
+        contractedNodes++;
+        if (u == w) return; // A detour out of u and back is never needed
+
+        double chainCost = cost[first] + cost[second];
+        int existing = findEdge(u, w);
+        if (existing >= 0) {
+            removedParallel++;
+            if (cost[existing] <= chainCost) return;
+            kill(existing);
+        }
+        addEdge(u, w, chainCost, first, second);
+    }
+
+    // =================================================================================
+    // EDGE TESTS
+    // =================================================================================
+
+    /**
+     * Runs the long-edge and special-distance tests on the live working edges in [from, to).
+     */
+    private void testEdges(int from, int to) {
+        for (int e = from; e < to; e++) {
+            if (!alive[e]) continue;
+            if (shortestOtherPath(e) < cost[e] - EPSILON) {
+                kill(e);
+                removedLongEdges++;
+            } else if (reachedTerminal && specialDistance(e) < cost[e] - EPSILON) {
+                kill(e);
+                removedSpecialDistance++;
+            }
+        }
+    }
+
+    /**
+     * Bounded Dijkstra between the edge's endpoints that may not use the edge itself. Records in
+     * reachedTerminal whether it met a terminal; if not, the special-distance search would repeat
+     * it step for step and is skipped.
+     * @return The distance found, or infinity if the search stopped first.
+     */
+    private double shortestOtherPath(int edge) {
+        int source = tail[edge];
+        int target = head[edge];
+        double limit = cost[edge];
+        startSearch(source);
+        reachedTerminal = false;
+        int scanned = 0;
+        while (!heap.isEmpty()) {
+            int x = heap.pop();
+            if (settled[x]) continue;
+            if (x == target) return dist[x];
+            settled[x] = true;
+            scanned += incidentSize[x];
+            if (scanned > TEST_SCAN_LIMIT) break;
+            for (int i = 0; i < incidentSize[x]; i++) {
+                int f = incident[x][i];
+                if (f == edge || !alive[f]) continue;
+                int y = other(f, x);
+                double d = dist[x] + cost[f];
+                if (d >= limit) continue;
+                if (isTerminal[y] && y != target) reachedTerminal = true;
+                if (stamp[y] != round || d < dist[y]) {
+                    touch(y);
+                    dist[y] = d;
+                    heap.push(d, y);
+                }
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Bounded search for a path between the edge's endpoints, without the edge, whose longest
+     * terminal-free stretch is short. dist holds the length of the current stretch and restarts
+     * at every terminal; bottleneck holds the longest stretch completed so far. Nodes are settled
+     * by the larger of the two, which is what the path would score if it ended there. Any path
+     * found bounds the bottleneck Steiner distance from above, so a removal is always safe.
+     * @return The bottleneck of the path found, or infinity if the search stopped first.
+     */
+    private double specialDistance(int edge) {
+        int source = tail[edge];
+        int target = head[edge];
+        double limit = cost[edge];
+        startSearch(source);
+        bottleneck[source] = 0.0;
+        int scanned = 0;
+        while (!heap.isEmpty()) {
+            int x = heap.pop();
+            if (settled[x]) continue;
+            if (x == target) return Math.max(bottleneck[x], dist[x]);
+            settled[x] = true;
+            scanned += incidentSize[x];
+            if (scanned > TEST_SCAN_LIMIT) break;
+            for (int i = 0; i < incidentSize[x]; i++) {
+                int f = incident[x][i];
+                if (f == edge || !alive[f]) continue;
+                int y = other(f, x);
+                if (stamp[y] == round && settled[y]) continue;
+                double stretch = dist[x] + cost[f];
+                double worst = bottleneck[x];
+                if (isTerminal[y] && y != target) {
+                    // The stretch ends at the terminal and the next one starts from zero
+                    worst = Math.max(worst, stretch);
+                    stretch = 0.0;
+                }
+                double key = Math.max(worst, stretch);
+                if (key >= limit) continue;
+                if (stamp[y] != round || key < Math.max(bottleneck[y], dist[y])) {
+                    touch(y);
+                    dist[y] = stretch;
+                    bottleneck[y] = worst;
+                    heap.push(key, y);
+                }
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    private void startSearch(int source) {
+        round++;
+        heap.clear();
+        touch(source);
+        dist[source] = 0.0;
+        heap.push(0.0, source);
+    }
+
+    private void touch(int v) {
+        if (stamp[v] != round) {
+            stamp[v] = round;
+            settled[v] = false;
+        }
+    }
+
+    // =================================================================================
+    // EDGE BOOKKEEPING
+    // =================================================================================
+
+    private int addEdge(int u, int w, double edgeCost, int leftChild, int rightChild) {
+        if (edgeCount == head.length) {
+            int capacity = edgeCount * 2;
+            head = Arrays.copyOf(head, capacity);
+            tail = Arrays.copyOf(tail, capacity);
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            cost = Arrays.copyOf(cost, capacity);
+            alive = Arrays.copyOf(alive, capacity);
+        }
+        int e = edgeCount++;
+        tail[e] = u;
+        head[e] = w;
+        cost[e] = edgeCost;
+        left[e] = leftChild;
+        right[e] = rightChild;
+        alive[e] = true;
+        attach(u, e);
+        if (w != u) attach(w, e);
+        degree[u]++;
+        degree[w]++;
+        return e;
+    }
+
+    private void attach(int v, int e) {
+        if (incidentSize[v] == incident[v].length) {
+            compact(v);
+            if (incidentSize[v] == incident[v].length) {
+                incident[v] = Arrays.copyOf(incident[v], Math.max(4, incidentSize[v] * 2));
+            }
+        }
+        incident[v][incidentSize[v]++] = e;
+    }
+
+    /**
+     * Removes an edge and queues both endpoints, whose degree has changed.
+     */
+    private void kill(int e) {
+        alive[e] = false;
+        degree[tail[e]]--;
+        degree[head[e]]--;
+        enqueue(tail[e]);
+        enqueue(head[e]);
+    }
+
+    private void enqueue(int v) {
+        if (!queued[v] && !removedNode[v]) {
+            queued[v] = true;
+            queue.add(v);
+        }
+    }
+
+    private void compact(int v) {
+        int[] list = incident[v];
+        int size = 0;
+        for (int i = 0; i < incidentSize[v]; i++) {
+            if (alive[list[i]]) list[size++] = list[i];
+        }
+        incidentSize[v] = size;
+    }
+
+    /**
+     * @return A live edge between u and w, or -1.
+     */
+    private int findEdge(int u, int w) {
+        int from = incidentSize[u] <= incidentSize[w] ? u : w;
+        int to = from == u ? w : u;
+        for (int i = 0; i < incidentSize[from]; i++) {
+            int e = incident[from][i];
+            if (alive[e] && other(e, from) == to) return e;
+        }
+        return -1;
+    }
+
+    private int other(int e, int v) {
+        return tail[e] == v ? head[e] : tail[e];
+    }
+
+    // =================================================================================
+    // REDUCED GRAPH
+    // =================================================================================
+
+    /**
+     * Builds the reduced SteinerGraph from the live edges. Rows keep their CSV columns;
+     * contracted edges get the summed cost as their weight, the summed estimated hours and the
+     * edge type "contracted". The reduced graph's cost model returns the working costs, so
+     * solvers see exactly the costs the reductions used, whatever model the original had.
+     */
+    private Reduction build(long startTime) {
+        List<String> nodeOrder = new ArrayList<>();
+        for (int v = 0; v < removedNode.length; v++) {
+            if (!removedNode[v] && (degree[v] > 0 || isTerminal[v])) {
+                nodeOrder.add(graph.nodeIds[v]);
+            }
+        }
+
+        int originalRows = graph.edgeCount();
+        List<SteinerGraph.Edge> edges = new ArrayList<>();
+        int[] workingEdge = new int[edgeCount];
+        double[] reducedCost = new double[edgeCount];
+        for (int e = 0; e < edgeCount; e++) {
+            if (!alive[e]) continue;
+            // fromEdges copies every edge, so the original rows are passed as they are
+            SteinerGraph.Edge edge = e < originalRows ? graph.directedEdges[2 * e] : contractedEdge(e);
+            workingEdge[edges.size()] = e;
+            reducedCost[edges.size()] = cost[e];
+            edges.add(edge);
+        }
+
+        SteinerGraph reduced = SteinerGraph.fromEdges(nodeOrder, edges, graph.metadata, terminals,
+                graph.sourcePath, edge -> reducedCost[edge.id >>> 1]);
+        long endTime = System.currentTimeMillis();
+        return new Reduction(this, reduced, Arrays.copyOf(workingEdge, edges.size()), endTime - startTime);
+    }
+
+    private SteinerGraph.Edge contractedEdge(int e) {
+        String from = graph.nodeIds[tail[e]];
+        String to = graph.nodeIds[head[e]];
+        SteinerGraph.NodeMetadata fromMeta = graph.metadata.get(from);
+        SteinerGraph.NodeMetadata toMeta = graph.metadata.get(to);
+
+        int hours = 0;
+        ArrayDeque<Integer> stack = new ArrayDeque<>();
+        stack.push(e);
+        while (!stack.isEmpty()) {
+            int f = stack.pop();
+            if (f < graph.edgeCount()) {
+                hours += graph.directedEdges[2 * f].estimatedHours;
+            } else {
+                stack.push(left[f]);
+                stack.push(right[f]);
+            }
+        }
+        return new SteinerGraph.Edge(from, to, cost[e], fromMeta.name, toMeta.name, isTerminal[tail[e]],
+                isTerminal[head[e]], fromMeta.difficulty, toMeta.difficulty, fromMeta.category, toMeta.category,
+                "contracted", 0.0, false, hours);
+    }
+}
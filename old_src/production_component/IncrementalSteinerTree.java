@@ -0,0 +1,205 @@
+import java.util.*;
+
+/**
+ * A solved Steiner tree that can be edited one terminal at a time, for interactive planners where
+ * a student adds or drops a single career goal. Each edit touches only the part of the graph near
+ * the changed course instead of re-solving:
+ * <ul>
+ *   <li>Adding a terminal runs one Dijkstra from the new course that stops at the first tree node
+ *       it settles, and joins the course along that shortest path, like one step of
+ *       Takahashi-Matsuyama.</li>
+ *   <li>Removing a terminal peels away the branch that no longer leads to any terminal.</li>
+ *   <li>{@link #repair} optionally runs a time-bounded {@link LocalSearch} over the edited tree,
+ *       since a sequence of greedy edits can drift away from what a full solve would find.</li>
+ * </ul>
+ * Not thread-safe; each planner session keeps its own instance.
+ */
+public class IncrementalSteinerTree {
+
+    private final SteinerGraph graph;
+    private final Set<String> terminals = new LinkedHashSet<>();
+    private final boolean[] isTerminal;
+    /** Tree membership per node index, also the target set of the attach search. */
+    private final boolean[] inTree;
+    /** Number of tree edges at each node. */
+    private final int[] degree;
+    private final BitSet rows = new BitSet();
+    private long lastUpdateMs;
+
+    /**
+     * Starts from a tree a solver returned for the given terminals.
+     * @param graph The graph the tree was solved on.
+     * @param terminals The terminals the tree connects.
+     * @param solved The solved tree.
+     */
+    public IncrementalSteinerTree(SteinerGraph graph, Set<String> terminals, SteinerResult solved) {
+        this.graph = graph;
+        this.isTerminal = new boolean[graph.nodeCount()];
+        this.inTree = new boolean[graph.nodeCount()];
+        this.degree = new int[graph.nodeCount()];
+        for (String terminal : terminals) {
+            int node = indexOf(terminal);
+            this.terminals.add(terminal);
+            isTerminal[node] = true;
+            inTree[node] = true;
+        }
+        for (int row : solved.edgeRows) {
+            addRow(row);
+        }
+        this.lastUpdateMs = solved.runtimeMs;
+    }
+
+    /**
+     * Connects a new terminal to the tree through its shortest path to the nearest tree node.
+     * A course already in the tree only becomes a terminal; a course that cannot reach the tree
+     * is kept as an isolated terminal, as the solvers do for disconnected terminals.
+     * @param course The course to add.
+     * @return The updated tree.
+     * @throws IllegalArgumentException If the course is not in the graph.
+     */
+    public SteinerResult addTerminal(String course) {
+        int node = indexOf(course);
+        long startTime = System.currentTimeMillis();
+
+        if (terminals.add(course) && !inTree[node]) {
+            if (rows.isEmpty() && terminals.size() == 1) {
+                // The first terminal is a tree on its own
+                inTree[node] = true;
+            } else {
+                attach(node);
+            }
+        }
+        isTerminal[node] = true;
+        inTree[node] = true;
+
+        lastUpdateMs = System.currentTimeMillis() - startTime;
+        return current();
+    }
+
+    /**
+     * Drops a terminal and prunes every branch left without a terminal at its end.
+     * @param course The terminal to remove.
+     * @return The updated tree.
+     * @throws IllegalArgumentException If the course is not in the graph.
+     */
+    public SteinerResult removeTerminal(String course) {
+        int node = indexOf(course);
+        long startTime = System.currentTimeMillis();
+
+        if (terminals.remove(course)) {
+            isTerminal[node] = false;
+            if (degree[node] == 0) {
+                inTree[node] = false;
+            } else if (degree[node] == 1) {
+                pruneFrom(node);
+            }
+            // A node of degree 2 or more still joins other terminals and stays as a Steiner node
+        }
+
+        lastUpdateMs = System.currentTimeMillis() - startTime;
+        return current();
+    }
+
+    /**
+     * Improves the edited tree with local search for at most the given time.
+     * @param budgetMs How long the repair may take, in milliseconds.
+     * @return The repaired tree, never costlier than before.
+     */
+    public SteinerResult repair(long budgetMs) {
+        long startTime = System.currentTimeMillis();
+        SteinerResult improved = LocalSearch.improve(graph, terminals, current(), budgetMs);
+
+        rows.clear();
+        Arrays.fill(degree, 0);
+        Arrays.fill(inTree, false);
+        for (String terminal : terminals) inTree[graph.indexOf(terminal)] = true;
+        for (int row : improved.edgeRows) addRow(row);
+
+        lastUpdateMs = System.currentTimeMillis() - startTime;
+        return current();
+    }
+
+    /**
+     * @return The current tree; runtimeMs is the duration of the last edit.
+     */
+    public SteinerResult current() {
+        return SteinerResult.fromRows(graph, rows, terminals, lastUpdateMs);
+    }
+
+    public Set<String> terminals() {
+        return Collections.unmodifiableSet(terminals);
+    }
+
+    // =================================================================================
+    // TREE EDITS
+    // =================================================================================
+
+    /**
+     * Searches from the new node until the first tree node is settled, then adds the path between
+     * them. The search explores only the ball around the new node up to its distance to the tree.
+     */
+    private void attach(int node) {
+        ShortestPaths.Tree paths = ShortestPaths.run(graph, node, inTree, 1);
+        int reached = -1;
+        for (int i = 0; i < paths.nodes.length; i++) {
+            if (inTree[paths.nodes[i]]) {
+                reached = i;
+                break;
+            }
+        }
+        if (reached < 0) return; // The tree is unreachable; the node stays isolated
+
+        for (int pos = reached; paths.predEdge[pos] >= 0; pos = paths.predPos[pos]) {
+            addRow(paths.predEdge[pos] >>> 1);
+        }
+    }
+
+    /**
+     * Walks up from a leaf that is no longer a terminal, removing edges until it reaches a
+     * terminal or a branching node.
+     */
+    private void pruneFrom(int leaf) {
+        int node = leaf;
+        while (degree[node] == 1 && !isTerminal[node]) {
+            int next = -1;
+            for (int a = graph.arcStart[node]; a < graph.arcStart[node + 1]; a++) {
+                int row = graph.arcId[a] >>> 1;
+                if (rows.get(row)) {
+                    removeRow(row);
+                    next = graph.arcTarget[a];
+                    break;
+                }
+            }
+            inTree[node] = false;
+            node = next;
+        }
+        if (degree[node] == 0 && !isTerminal[node]) {
+            inTree[node] = false;
+        }
+    }
+
+    private void addRow(int row) {
+        if (rows.get(row)) return;
+        rows.set(row);
+        int head = graph.edgeHead[2 * row];
+        int tail = graph.edgeHead[2 * row + 1];
+        degree[head]++;
+        degree[tail]++;
+        inTree[head] = true;
+        inTree[tail] = true;
+    }
+
+    private void removeRow(int row) {
+        rows.clear(row);
+        degree[graph.edgeHead[2 * row]]--;
+        degree[graph.edgeHead[2 * row + 1]]--;
+    }
+
+    private int indexOf(String course) {
+        int node = graph.indexOf(course);
+        if (node < 0) {
+            throw new IllegalArgumentException("Unknown terminal: " + course);
+        }
+        return node;
+    }
+}
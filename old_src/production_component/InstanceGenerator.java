@@ -0,0 +1,389 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Seeded generator of Steiner instances in the 15-column dataset format, for stress-testing and
+ * benchmarking the solvers at production scale (10^3 to 10^7 edges).
+ *
+ * Graph families:
+ * <ul>
+ *   <li>grid: a near-square 4-neighbour lattice, about 2 edges per node.</li>
+ *   <li>geometric: random points in the unit square joined when closer than a radius chosen
+ *       for the requested average degree. May be disconnected at low degrees.</li>
+ *   <li>scalefree: Barabasi-Albert preferential attachment, degree / 2 links per new node.</li>
+ *   <li>layered: courses split into difficulty layers, each course taking prerequisites from
+ *       the layer below, like a real catalog.</li>
+ * </ul>
+ * Rows are streamed to the output as they are generated, so memory stays proportional to the
+ * node count (the scale-free family also keeps one int per edge endpoint).
+ */
+public class InstanceGenerator {
+
+    static final String HEADER = "from_node,from_name,to_node,to_name,edge_weight,is_terminal_from,is_terminal_to,"
+            + "from_difficulty,to_difficulty,from_category,to_category,edge_type,overlap_score,is_prerequisite_hard,estimated_hours";
+
+    private static final String[] CATEGORIES = {"Math", "CS", "Science", "Engineering", "Research", "Humanities"};
+
+    /**
+     * Generator settings; every field has a usable default.
+     */
+    static class Options {
+        String family = "layered";
+        int nodes = 1000;
+        double degree = 6;
+        double terminalFraction = 0.01;
+        /** uniform, exponential, lognormal, or hours (weight proportional to estimated_hours). */
+        String weights = "uniform";
+        double minWeight = 1;
+        double maxWeight = 50;
+        int maxDifficulty = 5;
+        int minHours = 100;
+        int maxHours = 250;
+        int layers = 8;
+        long seed = 42;
+        String output = "Prod_Data/generated_dataset.csv";
+    }
+
+    private final Options options;
+    private final SplittableRandom random;
+    private final boolean[] isTerminal;
+    private final int[] difficulty;
+    private final int[] category;
+    private final StringBuilder row = new StringBuilder(256);
+    private long edgesWritten;
+
+    private InstanceGenerator(Options options) {
+        this.options = options;
+        this.random = new SplittableRandom(options.seed);
+        this.isTerminal = new boolean[options.nodes];
+        this.difficulty = new int[options.nodes];
+        this.category = new int[options.nodes];
+    }
+
+    /**
+     * Usage: java InstanceGenerator [--family=grid|geometric|scalefree|layered] [--nodes=N]
+     * [--degree=D] [--terminals=FRACTION] [--weights=uniform|exponential|lognormal|hours]
+     * [--min-weight=W] [--max-weight=W] [--max-difficulty=K] [--min-hours=H] [--max-hours=H]
+     * [--layers=L] [--seed=S] [--out=path.csv]
+     */
+    public static void main(String[] args) {
+        Options options;
+        try {
+            options = parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java InstanceGenerator [--family=grid|geometric|scalefree|layered] [--nodes=N] [--degree=D]"
+                    + " [--terminals=FRACTION] [--weights=uniform|exponential|lognormal|hours] [--min-weight=W] [--max-weight=W]"
+                    + " [--max-difficulty=K] [--min-hours=H] [--max-hours=H] [--layers=L] [--seed=S] [--out=path.csv]");
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        long edges;
+        try {
+            edges = generate(options);
+        } catch (IOException e) {
+            System.err.println("Could not write instance: " + e.getMessage());
+            return;
+        }
+        long endTime = System.currentTimeMillis();
+        System.out.printf("Wrote %s instance with %d nodes and %d edges to %s in %d ms%n",
+                options.family, options.nodes, edges, options.output, endTime - startTime);
+    }
+
+    static Options parse(String[] args) {
+        Options options = new Options();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            String name = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+            switch (name) {
+                case "family": options.family = value; break;
+                case "nodes": options.nodes = Integer.parseInt(value); break;
+                case "degree": options.degree = Double.parseDouble(value); break;
+                case "terminals": options.terminalFraction = Double.parseDouble(value); break;
+                case "weights": options.weights = value; break;
+                case "min-weight": options.minWeight = Double.parseDouble(value); break;
+                case "max-weight": options.maxWeight = Double.parseDouble(value); break;
+                case "max-difficulty": options.maxDifficulty = Integer.parseInt(value); break;
+                case "min-hours": options.minHours = Integer.parseInt(value); break;
+                case "max-hours": options.maxHours = Integer.parseInt(value); break;
+                case "layers": options.layers = Integer.parseInt(value); break;
+                case "seed": options.seed = Long.parseLong(value); break;
+                case "out": options.output = value; break;
+                default: throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+        }
+        if (options.nodes < 2) throw new IllegalArgumentException("At least 2 nodes are required");
+        if (options.terminalFraction < 0 || options.terminalFraction > 1) {
+            throw new IllegalArgumentException("Terminal fraction must be between 0 and 1");
+        }
+        if (options.maxDifficulty < 1 || options.minHours > options.maxHours || options.minWeight > options.maxWeight) {
+            throw new IllegalArgumentException("Invalid difficulty, hours or weight range");
+        }
+        // Weights are written by appendFixed, which only formats non-negative numbers, and the
+        // solvers' cost models reject negative costs anyway
+        if (options.minWeight < 0) {
+            throw new IllegalArgumentException("Minimum weight must not be negative");
+        }
+        if (!Arrays.asList("grid", "geometric", "scalefree", "layered").contains(options.family)) {
+            throw new IllegalArgumentException("Unknown graph family: " + options.family);
+        }
+        if (!Arrays.asList("uniform", "exponential", "lognormal", "hours").contains(options.weights)) {
+            throw new IllegalArgumentException("Unknown weight distribution: " + options.weights);
+        }
+        return options;
+    }
+
+    /**
+     * Generates an instance and writes it to options.output.
+     * @param options The generator settings.
+     * @return The number of edges (CSV rows) written.
+     * @throws IOException If the output cannot be written.
+     */
+    public static long generate(Options options) throws IOException {
+        InstanceGenerator generator = new InstanceGenerator(options);
+        generator.assignNodes();
+
+        File parent = new File(options.output).getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+        try (Writer out = new BufferedWriter(new FileWriter(options.output), 1 << 16)) {
+            out.write(HEADER);
+            out.write('\n');
+            switch (options.family) {
+                case "grid": generator.grid(out); break;
+                case "geometric": generator.geometric(out); break;
+                case "scalefree": generator.scaleFree(out); break;
+                case "layered": generator.layered(out); break;
+                default: throw new IllegalArgumentException("Unknown graph family: " + options.family);
+            }
+        }
+        return generator.edgesWritten;
+    }
+
+    // =================================================================================
+    // 1. NODE ATTRIBUTES
+    // =================================================================================
+
+    private void assignNodes() {
+        int n = options.nodes;
+        for (int v = 0; v < n; v++) {
+            difficulty[v] = 1 + random.nextInt(options.maxDifficulty);
+            category[v] = random.nextInt(CATEGORIES.length);
+        }
+        // Exactly round(fraction * n) distinct terminals, but never fewer than 2
+        int terminalCount = (int) Math.max(2, Math.min(n, Math.round(options.terminalFraction * n)));
+        for (int chosen = 0; chosen < terminalCount; ) {
+            int v = random.nextInt(n);
+            if (!isTerminal[v]) {
+                isTerminal[v] = true;
+                chosen++;
+            }
+        }
+    }
+
+    // =================================================================================
+    // 2. GRAPH FAMILIES
+    // =================================================================================
+
+    private void grid(Writer out) throws IOException {
+        int n = options.nodes;
+        int side = (int) Math.ceil(Math.sqrt(n));
+        for (int v = 0; v < n; v++) {
+            if ((v + 1) % side != 0 && v + 1 < n) writeEdge(out, v, v + 1, "prerequisite");
+            if (v + side < n) writeEdge(out, v, v + side, "prerequisite");
+        }
+    }
+
+    /**
+     * Points are bucketed into cells one radius wide, so each point is only compared with the
+     * points in its own and neighbouring cells.
+     */
+    private void geometric(Writer out) throws IOException {
+        int n = options.nodes;
+        double radius = Math.sqrt(options.degree / (Math.PI * n));
+        int cells = Math.max(1, (int) (1.0 / radius));
+        double[] x = new double[n];
+        double[] y = new double[n];
+        int[] head = new int[cells * cells];
+        int[] next = new int[n];
+        Arrays.fill(head, -1);
+        for (int v = 0; v < n; v++) {
+            x[v] = random.nextDouble();
+            y[v] = random.nextDouble();
+            int cell = cellOf(x[v], cells) * cells + cellOf(y[v], cells);
+            next[v] = head[cell];
+            head[cell] = v;
+        }
+
+        double r2 = radius * radius;
+        for (int v = 0; v < n; v++) {
+            int cx = cellOf(x[v], cells);
+            int cy = cellOf(y[v], cells);
+            for (int gx = Math.max(0, cx - 1); gx <= Math.min(cells - 1, cx + 1); gx++) {
+                for (int gy = Math.max(0, cy - 1); gy <= Math.min(cells - 1, cy + 1); gy++) {
+                    for (int u = head[gx * cells + gy]; u >= 0; u = next[u]) {
+                        if (u <= v) continue;
+                        double dx = x[u] - x[v];
+                        double dy = y[u] - y[v];
+                        if (dx * dx + dy * dy < r2) {
+                            writeEdge(out, v, u, random.nextInt(4) == 0 ? "recommended" : "prerequisite");
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static int cellOf(double coordinate, int cells) {
+        return Math.min(cells - 1, (int) (coordinate * cells));
+    }
+
+    /**
+     * Barabasi-Albert: every new node links to m distinct earlier nodes chosen with probability
+     * proportional to their degree, by sampling a uniformly random earlier edge endpoint.
+     */
+    private void scaleFree(Writer out) throws IOException {
+        int n = options.nodes;
+        int m = Math.max(1, Math.min(n - 1, (int) Math.round(options.degree / 2)));
+        int[] endpoints = new int[(int) Math.min(Integer.MAX_VALUE - 8, 2L * m * n)];
+        int size = 0;
+
+        // Seed with a clique on the first m + 1 nodes
+        for (int v = 0; v <= m; v++) {
+            for (int u = 0; u < v; u++) {
+                writeEdge(out, u, v, "prerequisite");
+                endpoints[size++] = u;
+                endpoints[size++] = v;
+            }
+        }
+        int[] targets = new int[m];
+        for (int v = m + 1; v < n; v++) {
+            int chosen = 0;
+            while (chosen < m) {
+                int u = endpoints[random.nextInt(size)];
+                boolean duplicate = false;
+                for (int i = 0; i < chosen; i++) duplicate |= targets[i] == u;
+                if (!duplicate) targets[chosen++] = u;
+            }
+            for (int i = 0; i < m; i++) {
+                writeEdge(out, targets[i], v, random.nextInt(3) == 0 ? "recommended" : "prerequisite");
+                endpoints[size++] = targets[i];
+                endpoints[size++] = v;
+            }
+        }
+    }
+
+    /**
+     * Courses are split evenly into layers of rising difficulty. Each course above the first
+     * layer takes about degree / 2 prerequisites from the layer below, plus an occasional
+     * recommended course two layers down.
+     */
+    private void layered(Writer out) throws IOException {
+        int n = options.nodes;
+        int layers = Math.max(2, Math.min(options.layers, n));
+        int[] layerStart = new int[layers + 1];
+        for (int l = 0; l <= layers; l++) layerStart[l] = (int) ((long) n * l / layers);
+        for (int l = 0; l < layers; l++) {
+            int level = 1 + (int) ((long) l * (options.maxDifficulty - 1) / Math.max(1, layers - 1));
+            for (int v = layerStart[l]; v < layerStart[l + 1]; v++) difficulty[v] = level;
+        }
+
+        int prerequisites = Math.max(1, (int) Math.round(options.degree / 2));
+        int[] chosen = new int[prerequisites];
+        for (int l = 1; l < layers; l++) {
+            int below = layerStart[l - 1];
+            int belowSize = layerStart[l] - below;
+            int count = Math.min(prerequisites, belowSize);
+            for (int v = layerStart[l]; v < layerStart[l + 1]; v++) {
+                for (int picked = 0; picked < count; ) {
+                    int u = below + random.nextInt(belowSize);
+                    boolean duplicate = false;
+                    for (int i = 0; i < picked; i++) duplicate |= chosen[i] == u;
+                    if (!duplicate) chosen[picked++] = u;
+                }
+                for (int i = 0; i < count; i++) {
+                    writeEdge(out, chosen[i], v, "prerequisite");
+                }
+                if (l >= 2 && random.nextInt(4) == 0) {
+                    int u = layerStart[l - 2] + random.nextInt(layerStart[l - 1] - layerStart[l - 2]);
+                    writeEdge(out, u, v, "recommended");
+                }
+            }
+        }
+    }
+
+    // =================================================================================
+    // 3. ROW OUTPUT
+    // =================================================================================
+
+    private void writeEdge(Writer out, int from, int to, String edgeType) throws IOException {
+        int hours = hours(to);
+        boolean hard = edgeType.equals("prerequisite") && random.nextInt(10) < 7;
+
+        row.setLength(0);
+        row.append('C').append(from).append(",Course ").append(from).append(',');
+        row.append('C').append(to).append(",Course ").append(to).append(',');
+        appendFixed(row, weight(hours), 3).append(',');
+        row.append(isTerminal[from]).append(',').append(isTerminal[to]).append(',');
+        row.append(difficulty[from]).append(',').append(difficulty[to]).append(',');
+        row.append(CATEGORIES[category[from]]).append(',').append(CATEGORIES[category[to]]).append(',');
+        row.append(edgeType).append(',');
+        appendFixed(row, random.nextDouble(), 2).append(',');
+        row.append(hard).append(',').append(hours).append('\n');
+        out.append(row);
+        edgesWritten++;
+    }
+
+    /**
+     * Estimated hours grow with the target course's difficulty, with +-10% noise.
+     */
+    private int hours(int to) {
+        double share = options.maxDifficulty == 1 ? 0.5 : (difficulty[to] - 1) / (double) (options.maxDifficulty - 1);
+        double base = options.minHours + share * (options.maxHours - options.minHours);
+        double noisy = base * (0.9 + 0.2 * random.nextDouble());
+        return (int) Math.max(options.minHours, Math.min(options.maxHours, Math.round(noisy)));
+    }
+
+    private double weight(int hours) {
+        double lo = options.minWeight;
+        double hi = options.maxWeight;
+        double w;
+        switch (options.weights) {
+            case "exponential":
+                w = lo - (hi - lo) / 4 * Math.log(1 - random.nextDouble());
+                break;
+            case "lognormal": {
+                // Box-Muller normal sample, exponentiated around the geometric midpoint of the range
+                double z = Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+                w = Math.sqrt(Math.max(lo, 1e-3) * hi) * Math.exp(0.5 * z);
+                break;
+            }
+            case "hours":
+                w = lo + (hi - lo) * (hours - options.minHours) / (double) Math.max(1, options.maxHours - options.minHours);
+                break;
+            default:
+                w = lo + (hi - lo) * random.nextDouble();
+        }
+        return Math.max(lo, Math.min(hi, w));
+    }
+
+    /**
+     * Appends a non-negative value with a fixed number of decimals, without String.format.
+     */
+    private static StringBuilder appendFixed(StringBuilder sb, double value, int decimals) {
+        long scale = decimals == 2 ? 100 : 1000;
+        long scaled = Math.round(value * scale);
+        sb.append(scaled / scale).append('.');
+        long fraction = scaled % scale;
+        for (long s = scale / 10; s > 1 && fraction < s; s /= 10) sb.append('0');
+        return sb.append(fraction);
+    }
+}
@@ -1,433 +1,399 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Implements the Kou–Markowsky–Berman (KMB) algorithm for approximating the Steiner Tree.
- * This file is self-contained and includes all necessary classes for graph representation,
- * data loading, and the algorithm itself.
+ * The input graph is the shared, read-only SteinerGraph; the tree under construction is a
+ * {@link WorkingTree}.
  */
 public class KMBAlgorithm {
 
     // =================================================================================
-    // 1. DATA STRUCTURES (INNER CLASSES)
+    // 1. DATA STRUCTURES (UNION-FIND)
     // =================================================================================
 
     /**
-     * Represents a weighted edge in the graph, storing all 15 columns from the dataset.
+     * Implements the Union-Find data structure for Kruskal's algorithm over int ids 0..n-1,
+     * with union by rank and iterative path halving.
      */
-    static class Edge {
-        String from, to, fromName, toName, fromCategory, toCategory, edgeType;
-        double weight;
-        boolean isTerminalFrom, isTerminalTo, isPrerequisiteHard;
-        int fromDifficulty, toDifficulty;
-        double overlapScore;
-        int estimatedHours;
-
-        public Edge(String from, String to, double weight, String fromName, String toName, boolean isTerminalFrom, boolean isTerminalTo, int fromDifficulty, int toDifficulty, String fromCategory, String toCategory, String edgeType, double overlapScore, boolean isPrerequisiteHard, int estimatedHours) {
-            this.from = from;
-            this.to = to;
-            this.weight = weight;
-            this.fromName = fromName;
-            this.toName = toName;
-            this.isTerminalFrom = isTerminalFrom;
-            this.isTerminalTo = isTerminalTo;
-            this.fromDifficulty = fromDifficulty;
-            this.toDifficulty = toDifficulty;
-            this.fromCategory = fromCategory;
-            this.toCategory = toCategory;
-            this.edgeType = edgeType;
-            this.overlapScore = overlapScore;
-            this.isPrerequisiteHard = isPrerequisiteHard;
-            this.estimatedHours = estimatedHours;
-        }
-
-        @Override
-        public String toString() {
-            return String.format("%s (%s) -> %s (%s) [w:%.2f]", from, fromName, to, toName, weight);
+    static class UnionFind {
+        private final int[] parent;
+        private final byte[] rank;
+
+        public UnionFind(int n) {
+            parent = new int[n];
+            rank = new byte[n];
+            for (int i = 0; i < n; i++) {
+                parent[i] = i;
+            }
         }
 
-        // Equals and hashCode are important for using Edges in Sets
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            Edge edge = (Edge) o;
-            return Double.compare(edge.weight, weight) == 0 &&
-                    (Objects.equals(from, edge.from) && Objects.equals(to, edge.to) ||
-                     Objects.equals(from, edge.to) && Objects.equals(to, edge.from));
+        public int find(int i) {
+            while (parent[i] != i) {
+                // Path halving: point every other node on the way at its grandparent
+                parent[i] = parent[parent[i]];
+                i = parent[i];
+            }
+            return i;
         }
 
-        @Override
-        public int hashCode() {
-            // Symmetrical hash code for undirected edges
-            return Objects.hash(from, to) + Objects.hash(to, from) + Objects.hash(weight);
+        /**
+         * @return true if i and j were in different sets and have now been merged.
+         */
+        public boolean union(int i, int j) {
+            int rootI = find(i);
+            int rootJ = find(j);
+            if (rootI == rootJ) {
+                return false;
+            }
+            if (rank[rootI] < rank[rootJ]) {
+                parent[rootI] = rootJ;
+            } else if (rank[rootI] > rank[rootJ]) {
+                parent[rootJ] = rootI;
+            } else {
+                parent[rootJ] = rootI;
+                rank[rootI]++;
+            }
+            return true;
         }
     }
 
+    // =================================================================================
+    // 2. CORE ALGORITHMS (DIJKSTRA, KMB STEPS)
+    // =================================================================================
+
     /**
-     * Stores node-specific metadata that doesn't belong to an edge.
+     * Convenience entry point that loads the dataset and solves for its own terminal set.
+     * Prefer loading a SteinerGraph once and calling {@link #solve} when running several solves.
+     * @param csvPath Path to the dataset file.
+     * @return A SteinerResult object containing the tree and performance metrics, or null if loading fails.
      */
-    static class NodeMetadata {
-        String name;
-        int difficulty;
-        String category;
-
-        public NodeMetadata(String name, int difficulty, String category) {
-            this.name = name;
-            this.difficulty = difficulty;
-            this.category = category;
+    public static SteinerResult runKMB(String csvPath) {
+        SteinerGraph graph;
+        try {
+            graph = SteinerGraph.load(csvPath);
+        } catch (IOException e) {
+            System.err.println("Failed to load graph from CSV: " + e.getMessage());
+            return null;
         }
+        return solve(graph, graph.terminals);
     }
 
     /**
-     * Represents the graph using an adjacency list.
+     * Public entry point for the KMB Algorithm on an already loaded graph.
+     * The graph is only read, so concurrent solves may share it.
+     * @param graph The shared course graph.
+     * @param terminals The courses the tree must connect; all must exist in the graph.
+     * @return A SteinerResult object containing the tree and performance metrics.
      */
-    static class Graph {
-        Map<String, List<Edge>> adj = new HashMap<>();
-        Set<String> nodes = new HashSet<>();
-        Map<String, NodeMetadata> metadata = new HashMap<>();
-        List<Edge> allEdges = new ArrayList<>();
-
-        public void addNode(String nodeId, NodeMetadata meta) {
-            adj.putIfAbsent(nodeId, new ArrayList<>());
-            metadata.putIfAbsent(nodeId, meta);
-            nodes.add(nodeId);
-        }
-
-        public void addEdge(Edge edge) {
-            // Ensure nodes exist in the graph before adding an edge
-            adj.putIfAbsent(edge.from, new ArrayList<>());
-            adj.putIfAbsent(edge.to, new ArrayList<>());
-            nodes.add(edge.from);
-            nodes.add(edge.to);
-            adj.get(edge.from).add(edge);
-            allEdges.add(edge);
-        }
-
-        public List<Edge> getNeighbors(String node) {
-            return adj.getOrDefault(node, Collections.emptyList());
-        }
-
-        public List<Edge> getAllEdges() {
-            return allEdges;
-        }
-
-        public boolean hasNode(String node) {
-            return nodes.contains(node);
-        }
+    public static SteinerResult solve(SteinerGraph graph, Set<String> terminals) {
+        return solve(graph, terminals, (ShortestPathCache) null);
     }
 
     /**
-     * Container for the results of a Steiner Tree algorithm execution.
+     * KMB entry point that takes the per-terminal shortest-path trees from a shared cache,
+     * so terminals already solved by earlier queries skip step A entirely.
+     * @param graph The shared course graph.
+     * @param terminals The courses the tree must connect; all must exist in the graph.
+     * @param cache The tree cache for this graph, or null to run fresh searches.
+     * @return A SteinerResult object containing the tree and performance metrics.
      */
-    static class SteinerResult {
-        double totalCost;
-        Set<String> steinerNodes;
-        Set<Edge> steinerEdges;
-        long runtimeMs;
-
-        public SteinerResult(double totalCost, Set<String> steinerNodes, Set<Edge> steinerEdges, long runtimeMs) {
-            this.totalCost = totalCost;
-            this.steinerNodes = steinerNodes;
-            this.steinerEdges = steinerEdges;
-            this.runtimeMs = runtimeMs;
-        }
+    public static SteinerResult solve(SteinerGraph graph, Set<String> terminals, ShortestPathCache cache) {
+        return solve(graph, terminals, cache, null);
     }
-    
-    /**
-     * Container for the results of Dijkstra's algorithm.
-     */
-    static class DijkstraResult {
-        Map<String, Double> distances;
-        Map<String, String> predecessors;
 
-        public DijkstraResult(Map<String, Double> distances, Map<String, String> predecessors) {
-            this.distances = distances;
-            this.predecessors = predecessors;
-        }
-    }
-    
     /**
-     * Implements the Union-Find data structure for Kruskal's algorithm.
+     * KMB entry point that persists steps A and B in a {@link TerminalPathStore} file. When the
+     * file matches the graph's CSV, its compiled edge costs and the same terminal set, the trees and
+     * the distance matrix are mapped from it instead of recomputed; otherwise they are computed and
+     * the file is rewritten.
+     * @param graph The shared course graph.
+     * @param terminals The courses the tree must connect; all must exist in the graph.
+     * @param storePath The terminal path store for this dataset.
+     * @return A SteinerResult object containing the tree and performance metrics.
      */
-    static class UnionFind {
-        private Map<String, String> parent = new HashMap<>();
+    public static SteinerResult solve(SteinerGraph graph, Set<String> terminals, Path storePath) {
+        return solve(graph, terminals, null, storePath);
+    }
 
-        public void makeSet(Collection<String> elements) {
-            for (String i : elements) {
-                parent.put(i, i);
+    private static SteinerResult solve(SteinerGraph graph, Set<String> terminals, ShortestPathCache cache, Path storePath) {
+        if (cache != null && cache.graph != graph) {
+            throw new IllegalArgumentException("Shortest-path cache belongs to a different graph");
+        }
+        for (String terminal : terminals) {
+            if (!graph.hasNode(terminal)) {
+                throw new IllegalArgumentException("Unknown terminal: " + terminal);
             }
         }
+        long startTime = System.currentTimeMillis();
 
-        public String find(String i) {
-            if (!parent.containsKey(i)) {
-                return null;
-            }
-            if (parent.get(i).equals(i)) {
-                return i;
+        List<String> terminalList = new ArrayList<>(terminals);
+        int[] terminalIndex = new int[terminalList.size()];
+        for (int i = 0; i < terminalIndex.length; i++) {
+            terminalIndex[i] = graph.indexOf(terminalList.get(i));
+        }
+
+        // STEPS A + B: Reuse the stored trees and distances if the dataset is unchanged
+        byte[] contentHash = null;
+        TerminalPathStore.Entry stored = null;
+        if (storePath != null) {
+            try {
+                contentHash = TerminalPathStore.contentHash(graph);
+                stored = TerminalPathStore.load(storePath, contentHash, graph, terminalIndex);
+            } catch (IOException e) {
+                System.err.println("Failed to read terminal path store: " + e.getMessage());
             }
-            // Path compression
-            String root = find(parent.get(i));
-            parent.put(i, root);
-            return root;
         }
 
-        public void union(String i, String j) {
-            String rootI = find(i);
-            String rootJ = find(j);
-            if (!rootI.equals(rootJ)) {
-                parent.put(rootI, rootJ);
+        ShortestPaths.Tree[] trees;
+        MetricClosure metricClosure;
+        if (stored != null) {
+            trees = stored.trees;
+            metricClosure = stored.closure;
+        } else {
+            // STEP A: Compute shortest-path trees from every terminal in parallel
+            trees = terminalTrees(graph, terminalList, cache);
+
+            // STEP B: Build the metric closure as a dense distance matrix over the terminals
+            metricClosure = MetricClosure.fromTrees(graph, terminalIndex, trees);
+
+            if (contentHash != null) {
+                try {
+                    TerminalPathStore.save(storePath, contentHash, graph, terminalIndex, trees, metricClosure);
+                } catch (IOException e) {
+                    System.err.println("Failed to write terminal path store: " + e.getMessage());
+                }
             }
         }
-    }
 
-    // =================================================================================
-    // 2. CORE ALGORITHMS (DIJKSTRA, KMB STEPS)
-    // =================================================================================
+        // STEP C: Find the Minimum Spanning Tree (MST) on the metric closure with O(T^2) Prim
+        int[] mstParent = metricClosure.primMST();
+
+        // STEP D: Expand MST edges back to original graph paths
+        WorkingTree steinerGraph = new WorkingTree();
+        for (int v = 0; v < mstParent.length; v++) {
+            int u = mstParent[v];
+            if (u < 0) continue;
+            // Use the pre-computed shortest-path tree rooted at u to reconstruct the path
+            reconstructPath(terminalList.get(u), terminalList.get(v), trees[u], graph, steinerGraph);
+        }
+
+        // STEP E: Prune the Steiner Tree
+        steinerGraph.prune(terminals);
 
+        // STEP F: Calculate final cost and package results
+        long endTime = System.currentTimeMillis();
+        return new SteinerResult(graph, steinerGraph.edgeRows(), terminals, endTime - startTime);
+    }
+    
     /**
-     * Public entry point for the KMB Algorithm.
-     * @param csvPath Path to the dataset file.
+     * Mehlhorn's variant of KMB: the same 2-approximation without the |T| searches or the complete
+     * metric closure. One multi-source Dijkstra from all terminals splits the graph into Voronoi
+     * regions; every edge joining two regions yields a candidate closure edge of length
+     * dist(u) + w(u, v) + dist(v) between their terminals, and an MST over the cheapest candidate
+     * per terminal pair is an MST of the metric closure. Runs in O(E log V) with O(V + E) memory.
+     * @param graph The shared course graph.
+     * @param terminals The courses the tree must connect; all must exist in the graph.
      * @return A SteinerResult object containing the tree and performance metrics.
      */
-    public static SteinerResult runKMB(String csvPath) {
+    public static SteinerResult solveMehlhorn(SteinerGraph graph, Set<String> terminals) {
+        for (String terminal : terminals) {
+            if (!graph.hasNode(terminal)) {
+                throw new IllegalArgumentException("Unknown terminal: " + terminal);
+            }
+        }
         long startTime = System.currentTimeMillis();
 
-        // Load graph data from CSV
-        Graph graph = new Graph();
-        Set<String> terminals = new HashSet<>();
-        try {
-            loadGraphFromCSV(csvPath, graph, terminals);
-        } catch (IOException e) {
-            System.err.println("Failed to load graph from CSV: " + e.getMessage());
-            return null;
+        // STEP A: One multi-source Dijkstra from all terminals builds the Voronoi regions
+        List<String> terminalList = new ArrayList<>(terminals);
+        int[] sources = new int[terminalList.size()];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = graph.indexOf(terminalList.get(i));
         }
-
-        // STEP A: Compute all-pairs shortest paths between terminals
-        Map<String, DijkstraResult> allShortestPaths = new HashMap<>();
-        for (String terminal : terminals) {
-            allShortestPaths.put(terminal, dijkstra(graph, terminal));
+        ShortestPaths.Voronoi voronoi = ShortestPaths.voronoi(graph, sources);
+
+        // STEP B: Keep the cheapest boundary arc for every pair of adjacent regions. The nodes are
+        // grouped by region, and while region bu is scanned, slot[bv] holds the candidate for the pair
+        // (bu, bv), so each pair costs a few array writes instead of boxed map entries.
+        int terminalCount = sources.length;
+        int n = graph.nodeCount();
+        int[] regionStart = new int[terminalCount + 1];
+        for (int u = 0; u < n; u++) {
+            if (voronoi.base[u] >= 0) regionStart[voronoi.base[u] + 1]++;
+        }
+        for (int i = 0; i < terminalCount; i++) regionStart[i + 1] += regionStart[i];
+        int[] regionNodes = new int[regionStart[terminalCount]];
+        int[] fill = Arrays.copyOf(regionStart, terminalCount);
+        for (int u = 0; u < n; u++) {
+            if (voronoi.base[u] >= 0) regionNodes[fill[voronoi.base[u]]++] = u;
         }
 
-        // STEP B: Build the metric closure graph (a complete graph of terminals)
-        Graph metricClosure = new Graph();
-        List<String> terminalList = new ArrayList<>(terminals);
-        for (int i = 0; i < terminalList.size(); i++) {
-            for (int j = i + 1; j < terminalList.size(); j++) {
-                String u = terminalList.get(i);
-                String v = terminalList.get(j);
-                double weight = allShortestPaths.get(u).distances.get(v);
-                if (weight < Double.POSITIVE_INFINITY) {
-                    metricClosure.addEdge(new Edge(u, v, weight, null, null, true, true, 0,0,null,null,null,0,false,0));
+        int capacity = (int) Math.min(graph.arcTarget.length, (long) terminalCount * (terminalCount - 1) / 2);
+        int[] pairFrom = new int[capacity];
+        int[] pairTo = new int[capacity];
+        int[] pairArc = new int[capacity];
+        double[] pairWeight = new double[capacity];
+        int[] pairFirstArc = new int[capacity];
+        int[] slot = new int[terminalCount];
+        Arrays.fill(slot, -1);
+        int[] touched = new int[terminalCount];
+        int candidates = 0;
+        for (int bu = 0; bu < terminalCount; bu++) {
+            int touchedCount = 0;
+            // Nodes ascend within a region, so arcs do too and the first cheapest arc is kept, as before
+            for (int i = regionStart[bu]; i < regionStart[bu + 1]; i++) {
+                int u = regionNodes[i];
+                for (int a = graph.arcStart[u]; a < graph.arcStart[u + 1]; a++) {
+                    int v = graph.arcTarget[a];
+                    int bv = voronoi.base[v];
+                    if (bv <= bu) continue; // Each pair is seen from both sides; keep one orientation
+                    double weight = voronoi.dist[u] + graph.arcWeight[a] + voronoi.dist[v];
+                    int c = slot[bv];
+                    if (c < 0) {
+                        c = candidates++;
+                        slot[bv] = c;
+                        touched[touchedCount++] = bv;
+                        pairFrom[c] = bu;
+                        pairTo[c] = bv;
+                        pairArc[c] = a;
+                        pairFirstArc[c] = a;
+                        pairWeight[c] = weight;
+                    } else if (weight < pairWeight[c]) {
+                        pairWeight[c] = weight;
+                        pairArc[c] = a;
+                    }
                 }
             }
+            for (int i = 0; i < touchedCount; i++) slot[touched[i]] = -1;
         }
 
-        // STEP C: Find the Minimum Spanning Tree (MST) on the metric closure
-        Set<Edge> mstEdges = kruskalMST(metricClosure);
+        // The candidates form a sparse closure graph over terminal positions. They are listed in the
+        // order of each pair's first arc, the order a single scan over all arcs meets them, so MST ties
+        // break as they did before the grouping
+        long[] order = new long[candidates];
+        for (int c = 0; c < candidates; c++) {
+            order[c] = ((long) pairFirstArc[c] << 32) | c;
+        }
+        Arrays.sort(order);
+        int[] candidateFrom = new int[candidates];
+        int[] candidateTo = new int[candidates];
+        int[] candidateArc = new int[candidates];
+        double[] candidateWeight = new double[candidates];
+        for (int i = 0; i < candidates; i++) {
+            int c = (int) order[i];
+            candidateFrom[i] = pairFrom[c];
+            candidateTo[i] = pairTo[c];
+            candidateArc[i] = pairArc[c];
+            candidateWeight[i] = pairWeight[c];
+        }
 
-        // STEP D: Expand MST edges back to original graph paths
-        Graph steinerGraph = new Graph();
-        for (Edge mstEdge : mstEdges) {
-            String u = mstEdge.from;
-            String v = mstEdge.to;
-            // Use the pre-computed predecessor map to reconstruct the path
-            reconstructPath(u, v, allShortestPaths.get(u).predecessors, graph, steinerGraph);
+        // STEP C: Find the MST on the sparse candidate graph
+        int[] mstCandidates = kruskalMST(terminalList.size(), candidateFrom, candidateTo, candidateWeight);
+
+        // STEP D: Expand each MST edge into terminal -> u, the boundary edge, and v -> terminal
+        WorkingTree steinerGraph = new WorkingTree();
+        for (int candidate : mstCandidates) {
+            SteinerGraph.Edge boundary = graph.arcEdge[candidateArc[candidate]];
+            addPathToBase(graph.edgeTail(boundary.id), voronoi, graph, steinerGraph);
+            addPathToBase(graph.edgeHead[boundary.id], voronoi, graph, steinerGraph);
+            steinerGraph.addOriginalEdge(graph, boundary.id);
         }
 
         // STEP E: Prune the Steiner Tree
-        prune(steinerGraph, terminals);
+        steinerGraph.prune(terminals);
 
         // STEP F: Calculate final cost and package results
-        double totalCost = steinerGraph.getAllEdges().stream().mapToDouble(e -> e.weight).sum();
-        Set<String> steinerNodes = new HashSet<>(steinerGraph.nodes);
-        Set<Edge> steinerEdges = new HashSet<>(steinerGraph.getAllEdges());
-
         long endTime = System.currentTimeMillis();
-        return new SteinerResult(totalCost, steinerNodes, steinerEdges, endTime - startTime);
+        return new SteinerResult(graph, steinerGraph.edgeRows(), terminals, endTime - startTime);
     }
-    
+
     /**
-     * Implements Dijkstra's algorithm to find the shortest paths from a single source.
-     * @param graph The graph to search.
-     * @param startNode The starting node.
-     * @return A DijkstraResult containing distances and predecessors.
+     * Runs one Dijkstra per terminal on the common ForkJoinPool. The searches only read the shared
+     * graph and each worker thread reuses its own scratch arrays (see {@link ShortestPaths}).
+     * A search stops once every terminal is settled, since only terminal distances and the
+     * paths between terminals are used afterwards. With a cache, complete trees are looked up
+     * (and computed on a miss) instead, so they can serve later terminal sets too.
+     * @param graph The shared course graph.
+     * @param terminalList The terminals; result i is the tree rooted at terminalList.get(i).
+     * @param cache The shared tree cache, or null.
+     * @return One shortest-path tree per terminal.
      */
-    private static DijkstraResult dijkstra(Graph graph, String startNode) {
-        Map<String, Double> distances = new HashMap<>();
-        Map<String, String> predecessors = new HashMap<>();
-        // Priority queue stores entries of <Node, Distance>
-        PriorityQueue<Map.Entry<String, Double>> pq = new PriorityQueue<>(Map.Entry.comparingByValue());
-
-        // Initialize all distances to infinity
-        for (String node : graph.nodes) {
-            distances.put(node, Double.POSITIVE_INFINITY);
+    private static ShortestPaths.Tree[] terminalTrees(SteinerGraph graph, List<String> terminalList, ShortestPathCache cache) {
+        boolean[] isTerminal = new boolean[graph.nodeCount()];
+        int[] sources = new int[terminalList.size()];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = graph.indexOf(terminalList.get(i));
+            isTerminal[sources[i]] = true;
         }
-        distances.put(startNode, 0.0);
-
-        pq.add(new AbstractMap.SimpleEntry<>(startNode, 0.0));
-
-        while (!pq.isEmpty()) {
-            String u = pq.poll().getKey();
-
-            for (Edge edge : graph.getNeighbors(u)) {
-                String v = edge.to;
-                double weight = edge.weight;
-                if (distances.get(u) + weight < distances.get(v)) {
-                    distances.put(v, distances.get(u) + weight);
-                    predecessors.put(v, u);
-                    pq.add(new AbstractMap.SimpleEntry<>(v, distances.get(v)));
-                }
-            }
-        }
-        return new DijkstraResult(distances, predecessors);
+        int terminalCount = sources.length;
+        return IntStream.range(0, sources.length)
+            .parallel()
+            .mapToObj(i -> cache != null
+                ? cache.get(sources[i])
+                : ShortestPaths.run(graph, sources[i], isTerminal, terminalCount))
+            .toArray(ShortestPaths.Tree[]::new);
     }
 
     /**
-     * Implements Kruskal's algorithm to find the Minimum Spanning Tree (MST).
-     * @param graph The graph on which to find the MST (in our case, the metric closure).
-     * @return A set of edges forming the MST.
+     * Implements Kruskal's algorithm to find the Minimum Spanning Tree (MST) of a sparse graph
+     * given as parallel edge arrays over nodes 0..n-1 (in our case, Mehlhorn's candidate closure).
+     * @param n The number of nodes.
+     * @param from The first endpoint of each edge.
+     * @param to The second endpoint of each edge.
+     * @param weight The weight of each edge.
+     * @return The positions of the edges forming the MST (a spanning forest if disconnected).
      */
-    private static Set<Edge> kruskalMST(Graph graph) {
-        Set<Edge> mst = new HashSet<>();
-        List<Edge> sortedEdges = graph.getAllEdges().stream()
-            .sorted(Comparator.comparingDouble(e -> e.weight))
-            .collect(Collectors.toList());
-
-        UnionFind uf = new UnionFind();
-        uf.makeSet(graph.nodes);
-
-        for (Edge edge : sortedEdges) {
-            if (uf.find(edge.from) != null && uf.find(edge.to) != null && !uf.find(edge.from).equals(uf.find(edge.to))) {
-                mst.add(edge);
-                uf.union(edge.from, edge.to);
+    private static int[] kruskalMST(int n, int[] from, int[] to, double[] weight) {
+        // Order by weight, ties by position, with primitive sorts only: each weight is replaced by
+        // its rank among the sorted weights (equal weights share one) and packed above the position
+        double[] sorted = weight.clone();
+        Arrays.sort(sorted);
+        long[] order = new long[weight.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = ((long) Arrays.binarySearch(sorted, weight[i]) << 32) | i;
+        }
+        Arrays.sort(order);
+
+        UnionFind uf = new UnionFind(n);
+        int[] mst = new int[Math.max(0, n - 1)];
+        int size = 0;
+        for (long key : order) {
+            int edge = (int) key;
+            if (uf.union(from[edge], to[edge])) {
+                mst[size++] = edge;
+                if (size == mst.length) break;
             }
         }
-        return mst;
+        return Arrays.copyOf(mst, size);
     }
     
     /**
-     * Reconstructs a shortest path between two nodes using a predecessor map and adds it to the steinerGraph.
+     * Reconstructs a shortest path between two nodes using a shortest-path tree and adds it to the steinerGraph.
      * @param u The start node of the path.
      * @param v The end node of the path.
-     * @param predecessors The map from a node to its predecessor on the shortest path from u.
+     * @param tree The shortest-path tree rooted at u.
      * @param originalGraph The complete original graph, to look up edge details.
      * @param steinerGraph The graph being built, to which path edges are added.
      */
-    private static void reconstructPath(String u, String v, Map<String, String> predecessors, Graph originalGraph, Graph steinerGraph) {
-        String current = v;
-        while (predecessors.containsKey(current)) {
-            String prev = predecessors.get(current);
-            // Find the original edge to get all metadata
-            final String currentFinal = current;
-            Edge originalEdge = originalGraph.getNeighbors(prev).stream()
-                .filter(e -> e.to.equals(currentFinal))
-                .findFirst()
-                .orElse(null);
-
-            if (originalEdge != null) {
-                // Add nodes and edge to the Steiner graph
-                steinerGraph.addNode(originalEdge.from, originalGraph.metadata.get(originalEdge.from));
-                steinerGraph.addNode(originalEdge.to, originalGraph.metadata.get(originalEdge.to));
-                steinerGraph.addEdge(originalEdge);
-
-                // Add reverse edge to maintain undirected property for pruning
-                Edge reverseEdge = new Edge(originalEdge.to, originalEdge.from, originalEdge.weight, originalEdge.toName, originalEdge.fromName, originalEdge.isTerminalTo, originalEdge.isTerminalFrom, originalEdge.toDifficulty, originalEdge.fromDifficulty, originalEdge.toCategory, originalEdge.fromCategory, originalEdge.edgeType, originalEdge.overlapScore, originalEdge.isPrerequisiteHard, originalEdge.estimatedHours);
-                steinerGraph.addEdge(reverseEdge);
-            }
-            current = prev;
-            if (current.equals(u)) break;
+    private static void reconstructPath(String u, String v, ShortestPaths.Tree tree, SteinerGraph originalGraph, WorkingTree steinerGraph) {
+        // Follow the edges Dijkstra actually relaxed, from v back to the root u
+        for (int pos = tree.position(originalGraph.indexOf(v)); pos >= 0 && tree.predEdge[pos] >= 0; pos = tree.predPos[pos]) {
+            steinerGraph.addOriginalEdge(originalGraph, tree.predEdge[pos]);
         }
     }
 
     /**
-     * Iteratively prunes non-terminal leaf nodes from the graph.
-     * A leaf node is a node with a degree of 1.
-     * @param graph The graph to prune.
-     * @param terminals The set of terminal nodes that should not be pruned.
-     */
-    private static void prune(Graph graph, Set<String> terminals) {
-        boolean removed;
-        do {
-            removed = false;
-            // Find all leaf nodes (degree 1) that are not terminals
-            List<String> nodesToRemove = graph.nodes.stream()
-                .filter(node -> !terminals.contains(node) && graph.getNeighbors(node).size() == 1)
-                .collect(Collectors.toList());
-
-            if (!nodesToRemove.isEmpty()) {
-                removed = true;
-                for (String node : nodesToRemove) {
-                    // Remove the node and its incident edge from the graph
-                    Edge incidentEdge = graph.getNeighbors(node).get(0);
-                    String neighbor = incidentEdge.to;
-
-                    graph.nodes.remove(node);
-                    graph.adj.remove(node);
-                    graph.allEdges.removeIf(e -> (e.from.equals(node) && e.to.equals(neighbor)) || (e.from.equals(neighbor) && e.to.equals(node)));
-
-                    // Also remove the edge from the neighbor's adjacency list
-                    if (graph.adj.containsKey(neighbor)) {
-                        graph.adj.get(neighbor).removeIf(e -> e.to.equals(node));
-                    }
-                }
-            }
-        } while (removed);
-    }
-    
-    // =================================================================================
-    // 3. UTILITY / DATA LOADING
-    // =================================================================================
-
-    /**
-     * Loads a graph from a CSV file.
-     * The graph is treated as undirected, so a reverse edge is added for each row.
-     * @param csvPath Path to the CSV file.
-     * @param graph The Graph object to populate.
-     * @param terminals The Set of terminal nodes to populate.
-     * @throws IOException If the file cannot be read.
+     * Adds the Voronoi shortest path from a node back to the terminal at the centre of its region.
+     * @param node The index of the node to start from.
+     * @param voronoi The multi-source Dijkstra result.
+     * @param originalGraph The complete original graph, to look up edge details.
+     * @param steinerGraph The graph being built, to which path edges are added.
      */
-    private static void loadGraphFromCSV(String csvPath, Graph graph, Set<String> terminals) throws IOException {
-        try (BufferedReader br = new BufferedReader(new FileReader(csvPath))) {
-            String line;
-            br.readLine(); // Skip header
-
-            while ((line = br.readLine()) != null) {
-                String[] values = line.split(",");
-                // Parse all 15 columns
-                String fromNode = values[0];
-                String fromName = values[1];
-                String toNode = values[2];
-                String toName = values[3];
-                double edgeWeight = Double.parseDouble(values[4]);
-                boolean isTerminalFrom = Boolean.parseBoolean(values[5]);
-                boolean isTerminalTo = Boolean.parseBoolean(values[6]);
-                int fromDifficulty = Integer.parseInt(values[7]);
-                int toDifficulty = Integer.parseInt(values[8]);
-                String fromCategory = values[9];
-                String toCategory = values[10];
-                String edgeType = values[11];
-                double overlapScore = Double.parseDouble(values[12]);
-                boolean isPrerequisiteHard = Boolean.parseBoolean(values[13]);
-                int estimatedHours = Integer.parseInt(values[14]);
-
-                // Add nodes and metadata to the graph
-                graph.addNode(fromNode, new NodeMetadata(fromName, fromDifficulty, fromCategory));
-                graph.addNode(toNode, new NodeMetadata(toName, toDifficulty, toCategory));
-
-                // Add forward and reverse edges to make the graph undirected
-                Edge forwardEdge = new Edge(fromNode, toNode, edgeWeight, fromName, toName, isTerminalFrom, isTerminalTo, fromDifficulty, toDifficulty, fromCategory, toCategory, edgeType, overlapScore, isPrerequisiteHard, estimatedHours);
-                Edge reverseEdge = new Edge(toNode, fromNode, edgeWeight, toName, fromName, isTerminalTo, isTerminalFrom, toDifficulty, fromDifficulty, toCategory, fromCategory, edgeType, overlapScore, isPrerequisiteHard, estimatedHours);
-                graph.addEdge(forwardEdge);
-                graph.addEdge(reverseEdge);
-                
-                // Identify terminals
-                if (isTerminalFrom) terminals.add(fromNode);
-                if (isTerminalTo) terminals.add(toNode);
-            }
+    private static void addPathToBase(int node, ShortestPaths.Voronoi voronoi, SteinerGraph originalGraph, WorkingTree steinerGraph) {
+        for (int current = node; voronoi.predEdge[current] >= 0; current = originalGraph.edgeTail(voronoi.predEdge[current])) {
+            steinerGraph.addOriginalEdge(originalGraph, voronoi.predEdge[current]);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,497 @@
+import java.util.*;
+
+/**
+ * Deadline-bounded local search that improves a Steiner tree returned by any solver.
+ * Three moves are tried, first-improvement, until none helps or the time budget runs out:
+ * <ul>
+ *   <li>Key-path exchange: drop a key path (a chain of degree-2 Steiner nodes between two key nodes)
+ *       and reconnect the two halves with the shortest path between them, if that is cheaper.</li>
+ *   <li>Steiner-node removal: drop a Steiner node and rejoin the pieces it leaves with the cheapest
+ *       non-tree edges between tree nodes.</li>
+ *   <li>Steiner-node insertion: add a node adjacent to at least two tree nodes and respan the tree
+ *       edges plus its edges into the tree.</li>
+ * </ul>
+ * Key-path exchange and removal are priced by their delta, the edges they drop against the edges
+ * they add, instead of re-summing the tree. They are not free of tree-sized work: both copy the
+ * edge set and label the pieces it falls into, and an insertion runs Kruskal over the whole tree
+ * plus the new node's edges. A move is applied only if it lowers the cost, so the current tree is
+ * always the best one found and is what gets returned when the deadline hits.
+ */
+public final class LocalSearch {
+
+    private static final double EPSILON = 1e-9;
+    // How many heap pops a reconnection search makes between deadline checks
+    private static final int DEADLINE_CHECK_INTERVAL = 4096;
+
+    private final SteinerGraph graph;
+    private final boolean[] isTerminal;
+    private final long deadlineNanos;
+
+    // The current (and best) tree: undirected edge ids (CSV rows) and their total weight
+    private BitSet rows;
+    private double cost;
+
+    // Scratch for the bounded reconnection searches
+    private final double[] dist;
+    private final int[] predEdge;
+    private final int[] stamp;
+    private final int[] side;
+    private int round;
+    // Side results of prune() and mst(), read right after the call
+    private double prunedCost;
+    private double spanningCost;
+    private final ShortestPaths.Heap heap = new ShortestPaths.Heap();
+
+    private LocalSearch(SteinerGraph graph, Set<String> terminals, long budgetMs) {
+        this.graph = graph;
+        this.isTerminal = new boolean[graph.nodeCount()];
+        for (String terminal : terminals) {
+            isTerminal[graph.indexOf(terminal)] = true;
+        }
+        this.deadlineNanos = System.nanoTime() + budgetMs * 1_000_000L;
+        this.dist = new double[graph.nodeCount()];
+        this.predEdge = new int[graph.nodeCount()];
+        this.stamp = new int[graph.nodeCount()];
+        this.side = new int[graph.nodeCount()];
+    }
+
+    // =================================================================================
+    // 1. PUBLIC ENTRY POINT
+    // =================================================================================
+
+    /**
+     * Improves a Steiner tree within a time budget.
+     * @param graph The shared course graph the tree was solved on.
+     * @param terminals The terminals the tree connects.
+     * @param start The tree to improve, as returned by one of the solvers.
+     * @param budgetMs How long to search, in milliseconds.
+     * @return The best tree found, never costlier than start; runtimeMs includes the search time.
+     */
+    public static SteinerResult improve(SteinerGraph graph, Set<String> terminals, SteinerResult start, long budgetMs) {
+        for (String terminal : terminals) {
+            if (!graph.hasNode(terminal)) {
+                throw new IllegalArgumentException("Unknown terminal: " + terminal);
+            }
+        }
+        if (start.edgeCount() == 0) {
+            return start;
+        }
+        long startTime = System.currentTimeMillis();
+
+        LocalSearch search = new LocalSearch(graph, terminals, budgetMs);
+        search.rows = new BitSet();
+        for (int row : start.edgeRows) {
+            search.rows.set(row);
+        }
+        search.cost = search.cost(search.rows);
+
+        boolean improved = true;
+        while (improved && !search.expired()) {
+            improved = search.tryKeyPathExchange() || search.tryRemovals() || search.tryInsertions();
+        }
+
+        // Keep the solver's result (and its exact cost figure) if nothing better was found
+        long endTime = System.currentTimeMillis();
+        if (search.cost >= start.totalCost - EPSILON) {
+            return start.withRuntime(start.runtimeMs + endTime - startTime);
+        }
+        return SteinerResult.fromRows(graph, search.rows, terminals, start.runtimeMs + endTime - startTime);
+    }
+
+    // =================================================================================
+    // 2. MOVES
+    // =================================================================================
+
+    /**
+     * Tries to replace one key path with a cheaper path between the two halves it connects.
+     * @return true if the tree was improved.
+     */
+    private boolean tryKeyPathExchange() {
+        Incidence incident = new Incidence(graph, rows);
+        BitSet walked = new BitSet();
+        for (int p = 0; p < incident.nodes.length; p++) {
+            int start = incident.nodes[p];
+            if (!isKeyNode(start, incident)) continue;
+
+            for (int i = incident.start[p]; i < incident.start[p + 1]; i++) {
+                int firstRow = incident.rows[i];
+                if (walked.get(firstRow)) continue;
+                if (expired()) return false;
+
+                // Walk through degree-2 Steiner nodes until the next key node
+                List<Integer> pathRows = new ArrayList<>();
+                double pathCost = 0.0;
+                int node = start;
+                int row = firstRow;
+                while (true) {
+                    pathRows.add(row);
+                    walked.set(row);
+                    pathCost += weight(row);
+                    node = otherEnd(row, node);
+                    if (isKeyNode(node, incident)) break;
+                    int first = incident.start[incident.position(node)];
+                    row = incident.rows[first] == row ? incident.rows[first + 1] : incident.rows[first];
+                }
+
+                if (reconnect(start, node, pathRows, pathCost, incident)) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes a key path and searches for a cheaper path joining the two components left behind.
+     * The search starts from every node on start's side and stops at the first node on end's side,
+     * or as soon as its distance reaches the cost of the removed path.
+     * @return true if a cheaper path was found and the tree was updated.
+     */
+    private boolean reconnect(int start, int end, List<Integer> pathRows, double pathCost, Incidence incident) {
+        BitSet remaining = (BitSet) rows.clone();
+        for (int row : pathRows) remaining.clear(row);
+
+        newRound();
+        int sideA = 1;
+        int sideB = 2;
+        List<Integer> componentA = component(start, remaining, incident, sideA);
+        component(end, remaining, incident, sideB);
+
+        heap.clear();
+        for (int node : componentA) {
+            dist[node] = 0.0;
+            predEdge[node] = -1;
+            heap.push(0.0, node);
+        }
+
+        int found = -1;
+        int pops = 0;
+        while (!heap.isEmpty()) {
+            double du = heap.peekKey();
+            int u = heap.pop();
+            if (du > dist[u]) continue;
+            if (du >= pathCost - EPSILON) break;
+            if (side[u] == sideB && stamp[u] == round) {
+                found = u;
+                break;
+            }
+            if (++pops % DEADLINE_CHECK_INTERVAL == 0 && expired()) return false;
+
+            for (int a = graph.arcStart[u]; a < graph.arcStart[u + 1]; a++) {
+                int v = graph.arcTarget[a];
+                double nd = du + graph.arcWeight[a];
+                if (stamp[v] != round) {
+                    stamp[v] = round;
+                    side[v] = 0;
+                    dist[v] = Double.POSITIVE_INFINITY;
+                }
+                if (nd < dist[v]) {
+                    dist[v] = nd;
+                    predEdge[v] = graph.arcId[a];
+                    heap.push(nd, v);
+                }
+            }
+        }
+        if (found < 0) return false;
+
+        // Every edge on the new path is outside the remaining tree, so the delta is exact
+        for (int node = found; predEdge[node] >= 0; node = graph.edgeTail(predEdge[node])) {
+            remaining.set(predEdge[node] >>> 1);
+        }
+        BitSet candidate = prune(remaining);
+        return accept(candidate, cost - pathCost + dist[found] - prunedCost);
+    }
+
+    /**
+     * Tries to drop each Steiner node in turn. The tree falls into one piece per dropped edge; the
+     * pieces are rejoined by Kruskal over the chords (non-tree edges between two tree nodes), so
+     * the move is priced as the chords added minus the edges dropped. When the tree is a forest,
+     * chords into the other trees are ignored, since only the dropped node's own tree is split.
+     * @return true if the tree was improved.
+     */
+    private boolean tryRemovals() {
+        Incidence incident = new Incidence(graph, rows);
+        List<Integer> chords = new ArrayList<>();
+        for (int u : incident.nodes) {
+            for (int a = graph.arcStart[u]; a < graph.arcStart[u + 1]; a++) {
+                int v = graph.arcTarget[a];
+                int row = graph.arcId[a] >>> 1;
+                if (u < v && incident.position(v) >= 0 && !rows.get(row)) chords.add(row);
+            }
+        }
+        chords.sort(Comparator.comparingDouble(this::weight));
+
+        // incident.nodes ascend, so Steiner nodes are tried in index order
+        for (int p = 0; p < incident.nodes.length; p++) {
+            int removed = incident.nodes[p];
+            if (isTerminal[removed]) continue;
+            if (expired()) return false;
+            int cutStart = incident.start[p];
+            int pieces = incident.start[p + 1] - cutStart;
+            double dropped = 0.0;
+            BitSet remaining = (BitSet) rows.clone();
+            for (int i = 0; i < pieces; i++) {
+                int row = incident.rows[cutStart + i];
+                dropped += weight(row);
+                remaining.clear(row);
+            }
+
+            // Label each piece 1..pieces; the removed node, and any other tree of a forest, stays
+            // unstamped this round
+            newRound();
+            for (int i = 0; i < pieces; i++) {
+                component(otherEnd(incident.rows[cutStart + i], removed), remaining, incident, i + 1);
+            }
+
+            KMBAlgorithm.UnionFind uf = new KMBAlgorithm.UnionFind(pieces + 1);
+            List<Integer> added = new ArrayList<>();
+            double addedCost = 0.0;
+            for (int row : chords) {
+                if (added.size() == pieces - 1 || addedCost + weight(row) >= dropped - EPSILON) break;
+                int u = graph.edgeTail(2 * row);
+                int v = graph.edgeHead[2 * row];
+                if (stamp[u] != round || stamp[v] != round) continue; // Not in any piece
+                if (uf.union(side[u], side[v])) {
+                    added.add(row);
+                    addedCost += weight(row);
+                }
+            }
+            if (added.size() != pieces - 1) continue; // Cut vertex, or no cheaper way to rejoin
+
+            for (int row : added) remaining.set(row);
+            BitSet candidate = prune(remaining);
+            if (accept(candidate, cost - dropped + addedCost - prunedCost)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Tries to add each node adjacent to two or more tree nodes, respanning the current tree edges
+     * together with the new node's edges into the tree.
+     * @return true if the tree was improved.
+     */
+    private boolean tryInsertions() {
+        Incidence incident = new Incidence(graph, rows);
+        // side[v] counts v's tree neighbours for the nodes stamped this round
+        newRound();
+        int[] neighbours = new int[16];
+        int neighbourCount = 0;
+        for (int u : incident.nodes) {
+            for (int a = graph.arcStart[u]; a < graph.arcStart[u + 1]; a++) {
+                int v = graph.arcTarget[a];
+                if (incident.position(v) >= 0) continue;
+                if (stamp[v] != round) {
+                    stamp[v] = round;
+                    side[v] = 0;
+                    if (neighbourCount == neighbours.length) neighbours = Arrays.copyOf(neighbours, 2 * neighbourCount);
+                    neighbours[neighbourCount++] = v;
+                }
+                side[v]++;
+            }
+        }
+        Arrays.sort(neighbours, 0, neighbourCount);
+
+        for (int i = 0; i < neighbourCount; i++) {
+            int inserted = neighbours[i];
+            if (side[inserted] < 2) continue;
+            if (expired()) return false;
+
+            BitSet candidates = (BitSet) rows.clone();
+            for (int a = graph.arcStart[inserted]; a < graph.arcStart[inserted + 1]; a++) {
+                if (incident.position(graph.arcTarget[a]) >= 0) candidates.set(graph.arcId[a] >>> 1);
+            }
+            BitSet spanning = mst(candidates);
+            double spanned = spanningCost;
+            BitSet candidate = prune(spanning);
+            if (accept(candidate, spanned - prunedCost)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Replaces the current tree if the candidate is cheaper.
+     * @param candidateCost The candidate's cost, as priced by the move.
+     */
+    private boolean accept(BitSet candidate, double candidateCost) {
+        if (candidateCost < cost - EPSILON) {
+            rows = candidate;
+            cost = candidateCost;
+            return true;
+        }
+        return false;
+    }
+
+    // =================================================================================
+    // 3. TREE HELPERS
+    // =================================================================================
+
+    private boolean expired() {
+        return System.nanoTime() >= deadlineNanos;
+    }
+
+    private void newRound() {
+        if (++round == 0) {
+            Arrays.fill(stamp, 0);
+            round = 1;
+        }
+    }
+
+    private double weight(int row) {
+        return graph.edgeCost[row];
+    }
+
+    private double cost(BitSet edges) {
+        double sum = 0.0;
+        for (int row = edges.nextSetBit(0); row >= 0; row = edges.nextSetBit(row + 1)) {
+            sum += weight(row);
+        }
+        return sum;
+    }
+
+    private int otherEnd(int row, int node) {
+        int from = graph.edgeTail(2 * row);
+        return from == node ? graph.edgeHead[2 * row] : from;
+    }
+
+    /**
+     * A key node is a terminal or a node whose tree degree is not 2; key paths run between them.
+     */
+    private boolean isKeyNode(int node, Incidence incident) {
+        return isTerminal[node] || incident.degree(incident.position(node)) != 2;
+    }
+
+    /**
+     * The tree's node-edge incidence in CSR form: the rows incident to nodes[p] are
+     * rows[start[p] .. start[p + 1] - 1]. Nodes are sorted, so a node's position is a binary search.
+     */
+    private static final class Incidence {
+        final int[] nodes;
+        final int[] start;
+        final int[] rows;
+
+        Incidence(SteinerGraph graph, BitSet edges) {
+            int m = edges.cardinality();
+            int[] ends = new int[2 * m];
+            int e = 0;
+            for (int row = edges.nextSetBit(0); row >= 0; row = edges.nextSetBit(row + 1)) {
+                ends[e++] = graph.edgeTail(2 * row);
+                ends[e++] = graph.edgeHead[2 * row];
+            }
+            Arrays.sort(ends);
+            int n = 0;
+            for (int i = 0; i < ends.length; i++) {
+                if (i == 0 || ends[i] != ends[i - 1]) ends[n++] = ends[i];
+            }
+            this.nodes = Arrays.copyOf(ends, n);
+
+            this.start = new int[n + 1];
+            for (int row = edges.nextSetBit(0); row >= 0; row = edges.nextSetBit(row + 1)) {
+                start[position(graph.edgeTail(2 * row)) + 1]++;
+                start[position(graph.edgeHead[2 * row]) + 1]++;
+            }
+            for (int p = 0; p < n; p++) start[p + 1] += start[p];
+            this.rows = new int[2 * m];
+            int[] fill = Arrays.copyOf(start, n);
+            for (int row = edges.nextSetBit(0); row >= 0; row = edges.nextSetBit(row + 1)) {
+                rows[fill[position(graph.edgeTail(2 * row))]++] = row;
+                rows[fill[position(graph.edgeHead[2 * row])]++] = row;
+            }
+        }
+
+        /**
+         * @return The node's position in nodes, or a negative value if it is not in the tree.
+         */
+        int position(int node) {
+            return Arrays.binarySearch(nodes, node);
+        }
+
+        int degree(int p) {
+            return start[p + 1] - start[p];
+        }
+    }
+
+    /**
+     * Marks the tree nodes reachable from start over the given edges with the given side label.
+     * @return The nodes reached, start included.
+     */
+    private List<Integer> component(int start, BitSet edges, Incidence incident, int label) {
+        List<Integer> reached = new ArrayList<>();
+        reached.add(start);
+        stamp[start] = round;
+        side[start] = label;
+        dist[start] = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < reached.size(); i++) {
+            int u = reached.get(i);
+            int p = incident.position(u);
+            for (int r = incident.start[p]; r < incident.start[p + 1]; r++) {
+                int row = incident.rows[r];
+                if (!edges.get(row)) continue;
+                int v = otherEnd(row, u);
+                if (stamp[v] == round && side[v] == label) continue;
+                stamp[v] = round;
+                side[v] = label;
+                dist[v] = Double.POSITIVE_INFINITY;
+                reached.add(v);
+            }
+        }
+        return reached;
+    }
+
+    /**
+     * Kruskal over the given rows, with nodes renumbered locally so the union-find stays small.
+     * Leaves the forest's cost in spanningCost.
+     * @return The rows of a minimum spanning forest.
+     */
+    private BitSet mst(BitSet candidates) {
+        List<Integer> order = new ArrayList<>();
+        Map<Integer, Integer> local = new HashMap<>();
+        for (int row = candidates.nextSetBit(0); row >= 0; row = candidates.nextSetBit(row + 1)) {
+            order.add(row);
+            local.putIfAbsent(graph.edgeTail(2 * row), local.size());
+            local.putIfAbsent(graph.edgeHead[2 * row], local.size());
+        }
+        order.sort(Comparator.comparingDouble(this::weight));
+
+        KMBAlgorithm.UnionFind uf = new KMBAlgorithm.UnionFind(local.size());
+        BitSet tree = new BitSet();
+        spanningCost = 0.0;
+        for (int row : order) {
+            if (uf.union(local.get(graph.edgeTail(2 * row)), local.get(graph.edgeHead[2 * row]))) {
+                tree.set(row);
+                spanningCost += weight(row);
+            }
+        }
+        return tree;
+    }
+
+    /**
+     * Peels non-terminal leaves off a tree with a degree array and a worklist, both indexed by
+     * incidence position. Leaves the cost of the peeled edges in prunedCost.
+     * @return The pruned rows.
+     */
+    private BitSet prune(BitSet edges) {
+        BitSet kept = (BitSet) edges.clone();
+        Incidence incident = new Incidence(graph, kept);
+        int n = incident.nodes.length;
+        int[] degree = new int[n];
+        int[] leaves = new int[n];
+        int top = 0;
+        prunedCost = 0.0;
+        for (int p = 0; p < n; p++) {
+            degree[p] = incident.degree(p);
+            if (degree[p] == 1 && !isTerminal[incident.nodes[p]]) leaves[top++] = p;
+        }
+        while (top > 0) {
+            int leaf = leaves[--top];
+            for (int r = incident.start[leaf]; r < incident.start[leaf + 1]; r++) {
+                int row = incident.rows[r];
+                if (!kept.get(row)) continue;
+                kept.clear(row);
+                prunedCost += weight(row);
+                int neighbour = incident.position(otherEnd(row, incident.nodes[leaf]));
+                if (--degree[neighbour] == 1 && !isTerminal[incident.nodes[neighbour]]) {
+                    leaves[top++] = neighbour;
+                }
+            }
+        }
+        return kept;
+    }
+}
@@ -1,6 +1,11 @@
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Main executor class to run the Steiner Tree approximation algorithms
@@ -8,9 +13,24 @@ import java.io.IOException;
  */
 public class Main {
 
+    // Spare latency spent improving the KMB tree with local search
+    private static final long LOCAL_SEARCH_BUDGET_MS = 100;
+
+    /**
+     * Usage: java Main [--exact] [--benchmark [warmup] [iterations] [output.csv]]
+     * With --benchmark, every solver is run repeatedly on the dataset and only the timing and
+     * allocation statistics are reported (see {@link Benchmark}). The exact Dreyfus-Wagner solver
+     * runs only with --exact: within its table cap it can still take gigabytes and minutes.
+     */
     public static void main(String[] args) {
+        List<String> options = new ArrayList<>(Arrays.asList(args));
+        boolean exact = options.remove("--exact");
+        args = options.toArray(new String[0]);
         // The project structure assumes a 'Prod_Data' folder at the root.
         String csvPath = "Prod_Data/synthetic_dataset.csv";
+        boolean benchmark = args.length > 0 && args[0].equals("--benchmark");
+        // KMB steps A and B are kept here and reused while the dataset's content hash is unchanged
+        Path storePath = Paths.get("Prod_Data/synthetic_dataset.kmb");
 
         // Before running, let's create a dummy dataset if it doesn't exist.
         // This makes the project runnable out-of-the-box.
@@ -19,8 +39,28 @@ public class Main {
         System.out.println("Running Steiner Tree Algorithms on: " + csvPath);
         System.out.println("====================================================\n");
 
+        // --- Load the shared graph once; both solvers read the same instance ---
+        SteinerGraph graph;
+        try {
+            graph = SteinerGraph.load(csvPath);
+        } catch (IOException e) {
+            System.err.println("Failed to load graph from CSV: " + e.getMessage());
+            return;
+        }
+        System.out.println("Loaded " + graph.nodes.size() + " nodes, " + graph.terminals.size()
+                + " terminals in " + graph.loadTimeMs + " ms\n");
+
+        if (benchmark) {
+            Benchmark.run(graph,
+                    args.length > 1 ? Integer.parseInt(args[1]) : Benchmark.DEFAULT_WARMUP,
+                    args.length > 2 ? Integer.parseInt(args[2]) : Benchmark.DEFAULT_ITERATIONS,
+                    args.length > 3 ? args[3] : null,
+                    exact);
+            return;
+        }
+
         // --- Run Kou-Markowsky-Berman (KMB) Algorithm ---
-        KMBAlgorithm.SteinerResult kmbResult = KMBAlgorithm.runKMB(csvPath);
+        SteinerResult kmbResult = KMBAlgorithm.solve(graph, graph.terminals, storePath);
         if (kmbResult != null) {
             printResult("Kou-Markowsky-Berman (KMB) Algorithm", kmbResult);
         } else {
@@ -29,8 +69,14 @@ public class Main {
 
         System.out.println("\n");
 
+        // --- Run Mehlhorn's single-search KMB variant ---
+        SteinerResult mehlhornResult = KMBAlgorithm.solveMehlhorn(graph, graph.terminals);
+        printResult("KMB (Mehlhorn Variant)", mehlhornResult);
+
+        System.out.println("\n");
+
         // --- Run Takahashi-Matsuyama (TM) Algorithm ---
-        TakahashiMatsuyama.SteinerResult tmResult = TakahashiMatsuyama.runTM(csvPath);
+        SteinerResult tmResult = TakahashiMatsuyama.solve(graph, graph.terminals);
         if (tmResult != null) {
             printResult("Takahashi-Matsuyama (TM) Algorithm", tmResult);
         } else {
@@ -39,9 +85,45 @@ public class Main {
 
         System.out.println("\n");
 
+        // --- Reduce the graph for the terminals, then run KMB on what is left ---
+        GraphReducer.Reduction reduction = GraphReducer.reduce(graph, graph.terminals);
+        System.out.println("Graph reduction: " + reduction.summary());
+        SteinerResult reducedResult = reduction.expand(KMBAlgorithm.solve(reduction.reduced, graph.terminals));
+        if (reducedResult != null) {
+            printResult("KMB on Reduced Graph", reducedResult);
+        } else {
+            System.out.println("KMB on the reduced graph failed to run.");
+        }
+
+        System.out.println("\n");
+
+        // --- Improve the KMB tree with deadline-bounded local search ---
+        if (kmbResult != null) {
+            SteinerResult improved = LocalSearch.improve(graph, graph.terminals, kmbResult, LOCAL_SEARCH_BUDGET_MS);
+            printResult("KMB + Local Search (" + LOCAL_SEARCH_BUDGET_MS + " ms budget)", improved);
+            System.out.println("\n");
+        }
+
+        // --- Run the exact Dreyfus-Wagner solver when asked to and the terminal set is small enough ---
+        SteinerResult exactResult = null;
+        if (!exact) {
+            System.out.println("Dreyfus-Wagner skipped: pass --exact to compute the optimal tree.");
+        } else if (DreyfusWagner.isFeasible(graph, graph.terminals.size())) {
+            exactResult = DreyfusWagner.solve(graph, graph.terminals);
+            if (exactResult != null) {
+                printResult("Dreyfus-Wagner (Exact)", exactResult);
+            } else {
+                System.out.println("Dreyfus-Wagner: terminals are not connected.");
+            }
+        } else {
+            System.out.println("Dreyfus-Wagner skipped: " + graph.terminals.size() + " terminals is too many for an exact solve.");
+        }
+
+        System.out.println("\n");
+
         // --- Print Comparison ---
         if (kmbResult != null && tmResult != null) {
-            printComparison(kmbResult, tmResult);
+            printComparison(kmbResult, tmResult, exactResult);
         }
     }
 
@@ -50,35 +132,24 @@ public class Main {
      * @param algorithmName The name of the algorithm.
      * @param result The SteinerResult object to print.
      */
-    private static void printResult(String algorithmName, KMBAlgorithm.SteinerResult result) {
+    private static void printResult(String algorithmName, SteinerResult result) {
         System.out.println("========== " + algorithmName + " ==========");
         System.out.printf("Total Cost: %.2f\n", result.totalCost);
-        System.out.println("Runtime: " + result.runtimeMs + " ms");
-        System.out.println("Node Count: " + result.steinerNodes.size());
-        System.out.println("Edge Count: " + result.steinerEdges.size());
-        System.out.println("Nodes: " + result.steinerNodes);
+        System.out.println("Runtime: " + result.runtimeMs + " ms (solve only)");
+        System.out.println("Node Count: " + result.nodeCount());
+        System.out.println("Edge Count: " + result.edgeCount());
+        System.out.println("Nodes: " + result.getSteinerNodes());
         System.out.println("Edges:");
-        result.steinerEdges.forEach(edge -> System.out.println("  " + edge));
+        result.getSteinerEdges().forEach(edge -> System.out.println("  " + edge));
     }
 
-    // Overloaded method for TM result type
-    private static void printResult(String algorithmName, TakahashiMatsuyama.SteinerResult result) {
-        System.out.println("========== " + algorithmName + " ==========");
-        System.out.printf("Total Cost: %.2f\n", result.totalCost);
-        System.out.println("Runtime: " + result.runtimeMs + " ms");
-        System.out.println("Node Count: " + result.steinerNodes.size());
-        System.out.println("Edge Count: " + result.steinerEdges.size());
-        System.out.println("Nodes: " + result.steinerNodes);
-        System.out.println("Edges:");
-        result.steinerEdges.forEach(edge -> System.out.println("  " + edge));
-    }
-    
     /**
      * Prints a comparison table of the two algorithm results.
      * @param kmb The result from the KMB algorithm.
      * @param tm The result from the TM algorithm.
+     * @param exact The optimal tree, or null if it was not computed; adds each heuristic's approximation ratio.
      */
-    private static void printComparison(KMBAlgorithm.SteinerResult kmb, TakahashiMatsuyama.SteinerResult tm) {
+    private static void printComparison(SteinerResult kmb, SteinerResult tm, SteinerResult exact) {
         double costDifference = tm.totalCost - kmb.totalCost;
         double percentageDiff = (kmb.totalCost == 0) ? 0 : (costDifference / kmb.totalCost) * 100;
 
@@ -86,15 +157,27 @@ public class Main {
         System.out.println("| Metric             | KMB Algorithm    | TM Algorithm     |");
         System.out.println("|--------------------|------------------|------------------|");
         System.out.printf("| Total Cost         | %-16.2f | %-16.2f |\n", kmb.totalCost, tm.totalCost);
-        System.out.printf("| Node Count         | %-16d | %-16d |\n", kmb.steinerNodes.size(), tm.steinerNodes.size());
-        System.out.printf("| Edge Count         | %-16d | %-16d |\n", kmb.steinerEdges.size(), tm.steinerEdges.size());
+        System.out.printf("| Node Count         | %-16d | %-16d |\n", kmb.nodeCount(), tm.nodeCount());
+        System.out.printf("| Edge Count         | %-16d | %-16d |\n", kmb.edgeCount(), tm.edgeCount());
+        System.out.printf("| Shared Edges       | %-16d | %-16d |\n", kmb.sharedEdges(tm), tm.sharedEdges(kmb));
         System.out.printf("| Runtime (ms)       | %-16d | %-16d |\n", kmb.runtimeMs, tm.runtimeMs);
+        if (exact != null) {
+            System.out.printf("| Optimal Cost       | %-16.2f | %-16.2f |\n", exact.totalCost, exact.totalCost);
+            System.out.printf("| Approx. Ratio      | %-16.4f | %-16.4f |\n", ratio(kmb, exact), ratio(tm, exact));
+        }
         System.out.println("|--------------------|------------------|------------------|");
         System.out.printf("\nCost Difference (TM - KMB): %.2f\n", costDifference);
         System.out.printf("Percentage Difference: %.2f%%\n", percentageDiff);
         System.out.println("============================================================");
     }
     
+    /**
+     * @return The heuristic's cost divided by the optimal cost (1.0 when both are zero).
+     */
+    private static double ratio(SteinerResult heuristic, SteinerResult exact) {
+        return exact.totalCost == 0 ? 1.0 : heuristic.totalCost / exact.totalCost;
+    }
+
     /**
      * Creates a dummy CSV file if it doesn't exist, so the project
      * can be compiled and run immediately without manual setup.
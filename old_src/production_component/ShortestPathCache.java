@@ -0,0 +1,82 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A size-bounded LRU cache of per-terminal shortest-path trees, shared by every query solved
+ * against one graph. Cached trees are complete (the search runs to exhaustion) so a tree computed
+ * for one terminal set serves any later set that contains the same terminal.
+ * The bound is on the total number of tree nodes stored, about 20 bytes each.
+ * Safe to use from the parallel KMB step A.
+ */
+public final class ShortestPathCache {
+
+    final SteinerGraph graph;
+    private final long maxNodes;
+    private final LinkedHashMap<Integer, ShortestPaths.Tree> trees = new LinkedHashMap<>(16, 0.75f, true);
+    private long storedNodes;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param graph The graph every cached tree belongs to.
+     * @param maxNodes The most tree nodes to keep across all cached trees.
+     */
+    public ShortestPathCache(SteinerGraph graph, long maxNodes) {
+        this.graph = graph;
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Returns the complete shortest-path tree rooted at a node, computing and caching it on a miss.
+     * The search runs outside the lock, so concurrent misses on different terminals proceed in parallel.
+     * @param source The index of the root node.
+     * @return The tree rooted at source.
+     */
+    ShortestPaths.Tree get(int source) {
+        synchronized (this) {
+            ShortestPaths.Tree cached = trees.get(source);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+
+        ShortestPaths.Tree tree = ShortestPaths.run(graph, source, null, 0);
+
+        synchronized (this) {
+            if (tree.nodes.length <= maxNodes && !trees.containsKey(source)) {
+                trees.put(source, tree);
+                storedNodes += tree.nodes.length;
+                // Evict least recently used trees until the bound holds again
+                Iterator<Map.Entry<Integer, ShortestPaths.Tree>> eldest = trees.entrySet().iterator();
+                while (storedNodes > maxNodes && eldest.hasNext()) {
+                    storedNodes -= eldest.next().getValue().nodes.length;
+                    eldest.remove();
+                }
+            }
+        }
+        return tree;
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        return trees.size();
+    }
+
+    /**
+     * @return The fraction of lookups served from the cache, or 0 before the first lookup.
+     */
+    public synchronized double hitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
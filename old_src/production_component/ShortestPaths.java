@@ -0,0 +1,346 @@
+import java.util.Arrays;
+
+/**
+ * Array-based Dijkstra over the compact arrays of a SteinerGraph, shared by the solvers.
+ * Every thread keeps one Scratch (distances, predecessors, heap) sized to the graph and reuses it
+ * across searches, so a search allocates nothing but its compact result.
+ */
+final class ShortestPaths {
+
+    // =================================================================================
+    // 1. DATA STRUCTURES (INNER CLASSES)
+    // =================================================================================
+
+    /**
+     * The settled part of one shortest-path tree. Only settled nodes are kept, sorted by node index,
+     * so lookups are a binary search and the tree costs memory proportional to what was explored.
+     * For the node at position i, predEdge[i] is the directed edge id Dijkstra relaxed to reach it
+     * and predPos[i] the position of that edge's tail, so a path is walked without further searches.
+     */
+    static final class Tree {
+        final int source;
+        final int[] nodes;
+        final double[] dist;
+        final int[] predEdge;
+        final int[] predPos;
+
+        Tree(int source, int[] nodes, double[] dist, int[] predEdge, int[] predPos) {
+            this.source = source;
+            this.nodes = nodes;
+            this.dist = dist;
+            this.predEdge = predEdge;
+            this.predPos = predPos;
+        }
+
+        /**
+         * @return The position of a node in this tree's arrays, or a negative value if it was not settled.
+         */
+        int position(int node) {
+            return Arrays.binarySearch(nodes, node);
+        }
+
+        /**
+         * @return The distance from the source, or infinity if the node was not settled.
+         */
+        double distanceTo(int node) {
+            int i = Arrays.binarySearch(nodes, node);
+            return i < 0 ? Double.POSITIVE_INFINITY : dist[i];
+        }
+
+    }
+
+    /**
+     * The result of one multi-source Dijkstra: every node's distance to, and last shortest-path
+     * edge (directed id) from, its nearest source. base[v] is the position of that source in the
+     * source array, or -1 if no source reaches v. The bases partition the graph into Voronoi regions.
+     */
+    static final class Voronoi {
+        final double[] dist;
+        final int[] predEdge;
+        final int[] base;
+
+        Voronoi(double[] dist, int[] predEdge, int[] base) {
+            this.dist = dist;
+            this.predEdge = predEdge;
+            this.base = base;
+        }
+    }
+
+    /**
+     * Binary min-heap of (key, node) pairs. Nodes are not decreased in place; callers push again on
+     * improvement and skip stale entries when they are popped.
+     */
+    static final class Heap {
+        double[] keys = new double[64];
+        int[] nodes = new int[64];
+        int size;
+
+        void clear() {
+            size = 0;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        double peekKey() {
+            return keys[0];
+        }
+
+        void push(double key, int node) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                nodes = Arrays.copyOf(nodes, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key) break;
+                keys[i] = keys[parent];
+                nodes[i] = nodes[parent];
+                i = parent;
+            }
+            keys[i] = key;
+            nodes[i] = node;
+        }
+
+        int pop() {
+            int top = nodes[0];
+            double key = keys[--size];
+            int node = nodes[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+                if (key <= keys[child]) break;
+                keys[i] = keys[child];
+                nodes[i] = nodes[child];
+                i = child;
+            }
+            keys[i] = key;
+            nodes[i] = node;
+            return top;
+        }
+    }
+
+    /**
+     * Per-thread working arrays. Entries are only valid while stamp[v] equals the current round,
+     * so a new search never has to clear anything.
+     */
+    static final class Scratch {
+        final double[] dist;
+        final int[] predEdge;
+        final int[] stamp;
+        final boolean[] settled;
+        final int[] order;
+        final Heap heap = new Heap();
+        int round;
+
+        Scratch(int n) {
+            dist = new double[n];
+            predEdge = new int[n];
+            stamp = new int[n];
+            settled = new boolean[n];
+            order = new int[n];
+        }
+
+        void reset() {
+            if (++round == 0) {
+                Arrays.fill(stamp, 0);
+                round = 1;
+            }
+            heap.clear();
+        }
+    }
+
+    /**
+     * Distances from a growing source set, kept up to date as sources are added. Distances only
+     * ever decrease, so adding a source re-relaxes just the nodes it moves closer, instead of
+     * repeating a full multi-source Dijkstra. predEdge[v] is the directed id of the edge relaxed to
+     * reach v, or -1 for sources and unreached nodes.
+     */
+    static final class GrowingSources {
+        final SteinerGraph graph;
+        final double[] dist;
+        final int[] predEdge;
+        private final Heap heap = new Heap();
+
+        GrowingSources(SteinerGraph graph) {
+            this.graph = graph;
+            this.dist = new double[graph.nodeCount()];
+            this.predEdge = new int[graph.nodeCount()];
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+            Arrays.fill(predEdge, -1);
+        }
+
+        /**
+         * Marks a node as a source. Call {@link #propagate} once after adding a batch of sources.
+         */
+        void addSource(int node) {
+            if (dist[node] == 0.0 && predEdge[node] < 0) return;
+            dist[node] = 0.0;
+            predEdge[node] = -1;
+            heap.push(0.0, node);
+        }
+
+        /**
+         * Runs Dijkstra from the sources added since the last call, touching only improved nodes.
+         */
+        void propagate() {
+            while (!heap.isEmpty()) {
+                double du = heap.peekKey();
+                int u = heap.pop();
+                if (du > dist[u]) continue; // Stale entry
+                for (int a = graph.arcStart[u]; a < graph.arcStart[u + 1]; a++) {
+                    int v = graph.arcTarget[a];
+                    double nd = du + graph.arcWeight[a];
+                    if (nd < dist[v]) {
+                        dist[v] = nd;
+                        predEdge[v] = graph.arcId[a];
+                        heap.push(nd, v);
+                    }
+                }
+            }
+        }
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = new ThreadLocal<>();
+
+    private ShortestPaths() {
+    }
+
+    // =================================================================================
+    // 2. SEARCH
+    // =================================================================================
+
+    /**
+     * @return This thread's scratch, (re)allocated if it was sized for a smaller graph.
+     */
+    static Scratch scratch(int nodeCount) {
+        Scratch s = SCRATCH.get();
+        if (s == null || s.dist.length < nodeCount) {
+            s = new Scratch(nodeCount);
+            SCRATCH.set(s);
+        }
+        return s;
+    }
+
+    /**
+     * Runs Dijkstra from one source using the calling thread's scratch arrays.
+     * The search stops as soon as every target has been settled, so nodes farther away than the
+     * farthest target are never expanded; it runs to exhaustion if some target is unreachable.
+     * @param graph The shared course graph.
+     * @param source The index of the start node.
+     * @param isTarget Flags the nodes the caller needs distances to, indexed by node; may be null.
+     * @param targetCount The number of flagged nodes.
+     * @return The settled part of the shortest-path tree.
+     */
+    static Tree run(SteinerGraph graph, int source, boolean[] isTarget, int targetCount) {
+        Scratch s = scratch(graph.nodeCount());
+        s.reset();
+        double[] dist = s.dist;
+        int[] predEdge = s.predEdge;
+        int[] stamp = s.stamp;
+        boolean[] settled = s.settled;
+        int round = s.round;
+
+        dist[source] = 0.0;
+        predEdge[source] = -1;
+        stamp[source] = round;
+        settled[source] = false;
+        s.heap.push(0.0, source);
+
+        int settledCount = 0;
+        int targetsLeft = isTarget == null ? -1 : targetCount;
+        while (!s.heap.isEmpty() && targetsLeft != 0) {
+            int u = s.heap.pop();
+            if (settled[u]) continue;
+            settled[u] = true;
+            s.order[settledCount++] = u;
+            if (isTarget != null && isTarget[u]) targetsLeft--;
+
+            double du = dist[u];
+            for (int a = graph.arcStart[u]; a < graph.arcStart[u + 1]; a++) {
+                int v = graph.arcTarget[a];
+                double nd = du + graph.arcWeight[a];
+                if (stamp[v] != round) {
+                    stamp[v] = round;
+                    settled[v] = false;
+                    dist[v] = nd;
+                    predEdge[v] = graph.arcId[a];
+                    s.heap.push(nd, v);
+                } else if (nd < dist[v]) {
+                    dist[v] = nd;
+                    predEdge[v] = graph.arcId[a];
+                    s.heap.push(nd, v);
+                }
+            }
+        }
+        return compact(graph, s, source, settledCount);
+    }
+
+    /**
+     * Runs a single Dijkstra seeded with every source at distance 0, labelling each node with its
+     * nearest source. Ties between sources go to whichever source settles the node first.
+     * @param graph The shared course graph.
+     * @param sources The indices of the source nodes.
+     * @return Full distance, predecessor and base arrays indexed by node.
+     */
+    static Voronoi voronoi(SteinerGraph graph, int[] sources) {
+        int n = graph.nodeCount();
+        Scratch s = scratch(n);
+        s.reset();
+        double[] dist = new double[n];
+        int[] predEdge = new int[n];
+        int[] base = new int[n];
+        boolean[] settled = new boolean[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(predEdge, -1);
+        Arrays.fill(base, -1);
+
+        for (int i = 0; i < sources.length; i++) {
+            if (base[sources[i]] >= 0) continue;
+            dist[sources[i]] = 0.0;
+            base[sources[i]] = i;
+            s.heap.push(0.0, sources[i]);
+        }
+
+        while (!s.heap.isEmpty()) {
+            int u = s.heap.pop();
+            if (settled[u]) continue;
+            settled[u] = true;
+
+            double du = dist[u];
+            for (int a = graph.arcStart[u]; a < graph.arcStart[u + 1]; a++) {
+                int v = graph.arcTarget[a];
+                double nd = du + graph.arcWeight[a];
+                if (nd < dist[v]) {
+                    dist[v] = nd;
+                    predEdge[v] = graph.arcId[a];
+                    base[v] = base[u];
+                    s.heap.push(nd, v);
+                }
+            }
+        }
+        return new Voronoi(dist, predEdge, base);
+    }
+
+    /**
+     * Copies the settled nodes out of the scratch arrays, sorted by node index.
+     */
+    private static Tree compact(SteinerGraph graph, Scratch s, int source, int settledCount) {
+        int[] nodes = Arrays.copyOf(s.order, settledCount);
+        Arrays.sort(nodes);
+        double[] dist = new double[settledCount];
+        int[] predEdge = new int[settledCount];
+        int[] predPos = new int[settledCount];
+        for (int i = 0; i < settledCount; i++) {
+            dist[i] = s.dist[nodes[i]];
+            predEdge[i] = s.predEdge[nodes[i]];
+            // The tail of a settled node's edge was settled before it, so it is always found
+            predPos[i] = predEdge[i] < 0 ? -1 : Arrays.binarySearch(nodes, graph.edgeTail(predEdge[i]));
+        }
+        return new Tree(source, nodes, dist, predEdge, predPos);
+    }
+}
@@ -0,0 +1,406 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * The production course graph, loaded once and shared by KMBAlgorithm and TakahashiMatsuyama.
+ * Every collection is wrapped read-only after loading and nothing is mutated afterwards,
+ * so any number of solves may run against the same instance concurrently.
+ */
+public final class SteinerGraph {
+
+    // =================================================================================
+    // 1. DATA STRUCTURES (INNER CLASSES)
+    // =================================================================================
+
+    /**
+     * Represents a weighted edge in the graph, storing all 15 columns from the dataset.
+     * Immutable; the graph that owns an edge creates it with its id, via {@link #withId}.
+     */
+    static class Edge {
+        final String from, to, fromName, toName, fromCategory, toCategory, edgeType;
+        final double weight;
+        final boolean isTerminalFrom, isTerminalTo, isPrerequisiteHard;
+        final int fromDifficulty, toDifficulty;
+        final double overlapScore;
+        final int estimatedHours;
+        /** Directed edge id (see {@link SteinerGraph#directedEdges}), or -1 for edges not owned by a graph. */
+        final int id;
+
+        public Edge(String from, String to, double weight, String fromName, String toName, boolean isTerminalFrom, boolean isTerminalTo, int fromDifficulty, int toDifficulty, String fromCategory, String toCategory, String edgeType, double overlapScore, boolean isPrerequisiteHard, int estimatedHours) {
+            this(from, to, weight, fromName, toName, isTerminalFrom, isTerminalTo, fromDifficulty, toDifficulty, fromCategory, toCategory, edgeType, overlapScore, isPrerequisiteHard, estimatedHours, -1);
+        }
+
+        Edge(String from, String to, double weight, String fromName, String toName, boolean isTerminalFrom, boolean isTerminalTo, int fromDifficulty, int toDifficulty, String fromCategory, String toCategory, String edgeType, double overlapScore, boolean isPrerequisiteHard, int estimatedHours, int id) {
+            this.from = from;
+            this.to = to;
+            this.weight = weight;
+            this.fromName = fromName;
+            this.toName = toName;
+            this.isTerminalFrom = isTerminalFrom;
+            this.isTerminalTo = isTerminalTo;
+            this.fromDifficulty = fromDifficulty;
+            this.toDifficulty = toDifficulty;
+            this.fromCategory = fromCategory;
+            this.toCategory = toCategory;
+            this.edgeType = edgeType;
+            this.overlapScore = overlapScore;
+            this.isPrerequisiteHard = isPrerequisiteHard;
+            this.estimatedHours = estimatedHours;
+            this.id = id;
+        }
+
+        /**
+         * @return A copy of this edge carrying the given directed id.
+         */
+        Edge withId(int id) {
+            return new Edge(from, to, weight, fromName, toName, isTerminalFrom, isTerminalTo, fromDifficulty, toDifficulty,
+                    fromCategory, toCategory, edgeType, overlapScore, isPrerequisiteHard, estimatedHours, id);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (%s) -> %s (%s) [w:%.2f]", from, fromName, to, toName, weight);
+        }
+
+        // Equals and hashCode are important for using Edges in Sets
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Edge edge = (Edge) o;
+            return Double.compare(edge.weight, weight) == 0 &&
+                    (Objects.equals(from, edge.from) && Objects.equals(to, edge.to) ||
+                     Objects.equals(from, edge.to) && Objects.equals(to, edge.from));
+        }
+
+        @Override
+        public int hashCode() {
+            // Symmetrical hash code for undirected edges
+            return Objects.hash(from, to) + Objects.hash(to, from) + Objects.hash(weight);
+        }
+    }
+
+    /**
+     * Stores node-specific metadata that doesn't belong to an edge.
+     */
+    static class NodeMetadata {
+        String name;
+        int difficulty;
+        String category;
+
+        public NodeMetadata(String name, int difficulty, String category) {
+            this.name = name;
+            this.difficulty = difficulty;
+            this.category = category;
+        }
+    }
+
+    // =================================================================================
+    // 2. GRAPH STATE (READ-ONLY AFTER LOADING)
+    // =================================================================================
+
+    final Map<String, List<Edge>> adj;
+    final Set<String> nodes;
+    final Map<String, NodeMetadata> metadata;
+    final List<Edge> allEdges;
+    /** Nodes flagged by the is_terminal_from / is_terminal_to columns. */
+    final Set<String> terminals;
+    final long loadTimeMs;
+    /** The CSV the graph was loaded from. */
+    final String sourcePath;
+    /** The model edgeCost and arcWeight were compiled from. */
+    final CostModel costModel;
+
+    // Compact array copy of adj for the array-based searches. Node i is nodeIds[i]; its arcs are
+    // arcStart[i] .. arcStart[i + 1] - 1, in the same order as getNeighbors(nodeIds[i]).
+    final String[] nodeIds;
+    final Map<String, Integer> nodeIndex;
+    final int[] arcStart;
+    final int[] arcTarget;
+    /** The compiled cost of each arc, edgeCost of its row; the only weight the searches read. */
+    final double[] arcWeight;
+    final Edge[] arcEdge;
+
+    // CSV row r is undirected edge r. Its forward direction has directed id 2r and its reverse 2r + 1,
+    // so d ^ 1 flips a direction and d >>> 1 recovers the row. directedEdges[d] is the Edge object,
+    // edgeHead[d] its target node index, and arcId maps a CSR arc position to its directed id.
+    final Edge[] directedEdges;
+    final int[] edgeHead;
+    final int[] arcId;
+    /** The cost model evaluated once per CSV row; totals and tree costs are sums over this array. */
+    final double[] edgeCost;
+
+    private SteinerGraph(Map<String, List<Edge>> adj, List<String> nodeOrder, Set<String> nodes,
+                         Map<String, NodeMetadata> metadata, List<Edge> allEdges, Set<String> terminals,
+                         long loadTimeMs, String sourcePath, CostModel costModel) {
+        Map<String, List<Edge>> frozenAdj = new HashMap<>();
+        for (Map.Entry<String, List<Edge>> entry : adj.entrySet()) {
+            frozenAdj.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+        }
+        this.adj = Collections.unmodifiableMap(frozenAdj);
+        this.nodes = Collections.unmodifiableSet(nodes);
+        this.metadata = Collections.unmodifiableMap(metadata);
+        this.allEdges = Collections.unmodifiableList(allEdges);
+        this.terminals = Collections.unmodifiableSet(terminals);
+        this.loadTimeMs = loadTimeMs;
+        this.sourcePath = sourcePath;
+        this.costModel = costModel;
+
+        int n = nodeOrder.size();
+        this.nodeIds = nodeOrder.toArray(new String[0]);
+        Map<String, Integer> index = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) index.put(nodeIds[i], i);
+        this.nodeIndex = Collections.unmodifiableMap(index);
+
+        this.directedEdges = allEdges.toArray(new Edge[0]);
+        this.edgeHead = new int[directedEdges.length];
+        for (int d = 0; d < directedEdges.length; d++) {
+            edgeHead[d] = index.get(directedEdges[d].to);
+        }
+        this.edgeCost = compile(directedEdges, costModel);
+
+        this.arcStart = new int[n + 1];
+        for (int i = 0; i < n; i++) arcStart[i + 1] = arcStart[i] + adj.get(nodeIds[i]).size();
+        this.arcTarget = new int[arcStart[n]];
+        this.arcWeight = new double[arcStart[n]];
+        this.arcEdge = new Edge[arcStart[n]];
+        this.arcId = new int[arcStart[n]];
+        for (int i = 0; i < n; i++) {
+            int a = arcStart[i];
+            for (Edge e : adj.get(nodeIds[i])) {
+                arcTarget[a] = index.get(e.to);
+                arcWeight[a] = edgeCost[e.id >>> 1];
+                arcEdge[a] = e;
+                arcId[a] = e.id;
+                a++;
+            }
+        }
+    }
+
+    /**
+     * A view of another graph under a different cost model; everything but the cost arrays is shared.
+     */
+    private SteinerGraph(SteinerGraph base, CostModel costModel) {
+        this.adj = base.adj;
+        this.nodes = base.nodes;
+        this.metadata = base.metadata;
+        this.allEdges = base.allEdges;
+        this.terminals = base.terminals;
+        this.loadTimeMs = base.loadTimeMs;
+        this.sourcePath = base.sourcePath;
+        this.costModel = costModel;
+        this.nodeIds = base.nodeIds;
+        this.nodeIndex = base.nodeIndex;
+        this.arcStart = base.arcStart;
+        this.arcTarget = base.arcTarget;
+        this.arcEdge = base.arcEdge;
+        this.directedEdges = base.directedEdges;
+        this.edgeHead = base.edgeHead;
+        this.arcId = base.arcId;
+        this.edgeCost = compile(directedEdges, costModel);
+        this.arcWeight = new double[arcId.length];
+        for (int a = 0; a < arcId.length; a++) {
+            arcWeight[a] = edgeCost[arcId[a] >>> 1];
+        }
+    }
+
+    /**
+     * Evaluates a cost model on the forward edge of every row.
+     * @throws IllegalArgumentException If the model returns a negative, infinite or NaN cost.
+     */
+    private static double[] compile(Edge[] directedEdges, CostModel costModel) {
+        double[] cost = new double[directedEdges.length / 2];
+        for (int r = 0; r < cost.length; r++) {
+            double c = costModel.cost(directedEdges[2 * r]);
+            if (!(c >= 0.0) || c == Double.POSITIVE_INFINITY) {
+                throw new IllegalArgumentException("Cost model returned " + c + " for edge " + directedEdges[2 * r]);
+            }
+            cost[r] = c;
+        }
+        return cost;
+    }
+
+    /**
+     * Compiles the graph under another cost model. The new graph shares every structure with this
+     * one except the cost arrays, so it is cheap to create and both may be solved concurrently.
+     * @param costModel The objective to minimise.
+     * @return A graph whose solvers minimise costModel.
+     * @throws IllegalArgumentException If the model returns a negative, infinite or NaN cost.
+     */
+    public SteinerGraph withCostModel(CostModel costModel) {
+        return new SteinerGraph(this, costModel);
+    }
+
+    /**
+     * @return The number of undirected edges, i.e. CSV rows.
+     */
+    public int edgeCount() {
+        return directedEdges.length / 2;
+    }
+
+    /**
+     * @return The index of the node a directed edge starts from.
+     */
+    int edgeTail(int directedId) {
+        return edgeHead[directedId ^ 1];
+    }
+
+    public int nodeCount() {
+        return nodeIds.length;
+    }
+
+    /**
+     * @return The array index of a node, or -1 if the node is not in the graph.
+     */
+    public int indexOf(String node) {
+        Integer i = nodeIndex.get(node);
+        return i == null ? -1 : i;
+    }
+
+    public List<Edge> getNeighbors(String node) {
+        return adj.getOrDefault(node, Collections.emptyList());
+    }
+
+    public List<Edge> getAllEdges() {
+        return allEdges;
+    }
+
+    public boolean hasNode(String node) {
+        return nodes.contains(node);
+    }
+
+    // =================================================================================
+    // 3. DATA LOADING
+    // =================================================================================
+
+    /**
+     * Loads a graph from a CSV file with {@link CsvRecordReader}, so quoted course names may contain commas.
+     * The graph is treated as undirected, so a reverse edge is added for each row.
+     * Costs are the edge_weight column ({@link CostModel#WEIGHT}).
+     * @param csvPath Path to the CSV file.
+     * @return The loaded, read-only graph.
+     * @throws IOException If the file cannot be read.
+     */
+    public static SteinerGraph load(String csvPath) throws IOException {
+        return load(csvPath, CostModel.WEIGHT);
+    }
+
+    /**
+     * Loads a graph from a CSV file and compiles its edge costs with a cost model.
+     * @param csvPath Path to the CSV file.
+     * @param costModel The objective the solvers will minimise.
+     * @return The loaded, read-only graph.
+     * @throws IOException If the file cannot be read.
+     * @throws IllegalArgumentException If the model returns a negative, infinite or NaN cost.
+     */
+    public static SteinerGraph load(String csvPath, CostModel costModel) throws IOException {
+        long startTime = System.currentTimeMillis();
+
+        Map<String, List<Edge>> adj = new HashMap<>();
+        List<String> nodeOrder = new ArrayList<>();
+        Set<String> nodes = new HashSet<>();
+        Map<String, NodeMetadata> metadata = new HashMap<>();
+        List<Edge> allEdges = new ArrayList<>();
+        Set<String> terminals = new HashSet<>();
+
+        try (CsvRecordReader csv = CsvRecordReader.open(Paths.get(csvPath))) {
+            csv.nextRecord(); // Skip header
+
+            while (csv.nextRecord()) {
+                if (csv.fieldCount() != 15) {
+                    throw new IOException("Expected 15 columns in record " + csv.recordNumber() + " but found " + csv.fieldCount());
+                }
+                // Parse all 15 columns
+                String fromNode = csv.field(0);
+                String fromName = csv.field(1);
+                String toNode = csv.field(2);
+                String toName = csv.field(3);
+                double edgeWeight = csv.doubleField(4);
+                boolean isTerminalFrom = csv.booleanField(5);
+                boolean isTerminalTo = csv.booleanField(6);
+                int fromDifficulty = csv.intField(7);
+                int toDifficulty = csv.intField(8);
+                String fromCategory = csv.field(9);
+                String toCategory = csv.field(10);
+                String edgeType = csv.field(11);
+                double overlapScore = csv.doubleField(12);
+                boolean isPrerequisiteHard = csv.booleanField(13);
+                int estimatedHours = csv.intField(14);
+
+                // Add nodes and metadata to the graph
+                addNode(adj, nodeOrder, nodes, metadata, fromNode, fromName, fromDifficulty, fromCategory);
+                addNode(adj, nodeOrder, nodes, metadata, toNode, toName, toDifficulty, toCategory);
+
+                // Add forward and reverse edges to make the graph undirected
+                Edge forwardEdge = new Edge(fromNode, toNode, edgeWeight, fromName, toName, isTerminalFrom, isTerminalTo, fromDifficulty, toDifficulty, fromCategory, toCategory, edgeType, overlapScore, isPrerequisiteHard, estimatedHours, allEdges.size());
+                Edge reverseEdge = reverse(forwardEdge, allEdges.size() + 1);
+                adj.get(fromNode).add(forwardEdge);
+                adj.get(toNode).add(reverseEdge);
+                allEdges.add(forwardEdge);
+                allEdges.add(reverseEdge);
+
+                // Identify terminals
+                if (isTerminalFrom) terminals.add(fromNode);
+                if (isTerminalTo) terminals.add(toNode);
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed number in " + csvPath + ": " + e.getMessage(), e);
+        }
+
+        long endTime = System.currentTimeMillis();
+        return new SteinerGraph(adj, nodeOrder, nodes, metadata, allEdges, terminals, endTime - startTime, csvPath, costModel);
+    }
+
+    /**
+     * Builds a graph from edges held in memory instead of a CSV; used by {@link GraphReducer} for the
+     * reduced graph. Each forward edge becomes one row, in list order. The graph stores copies that
+     * carry its own ids, plus their reverse directions, so the caller's Edge objects are left as they
+     * are and may belong to another graph.
+     * @param nodeOrder Every node, in index order; nodes without edges are kept.
+     * @param forwardEdges One edge per row.
+     * @param metadata Metadata for every node.
+     * @param terminals The terminal set to record.
+     * @param sourcePath The CSV the edges were derived from.
+     * @param costModel The cost model to compile.
+     * @return The read-only graph.
+     */
+    static SteinerGraph fromEdges(List<String> nodeOrder, List<Edge> forwardEdges, Map<String, NodeMetadata> metadata,
+                                  Set<String> terminals, String sourcePath, CostModel costModel) {
+        long startTime = System.currentTimeMillis();
+        Map<String, List<Edge>> adj = new HashMap<>();
+        for (String node : nodeOrder) adj.put(node, new ArrayList<>());
+        List<Edge> allEdges = new ArrayList<>(forwardEdges.size() * 2);
+        for (Edge edge : forwardEdges) {
+            Edge forwardEdge = edge.withId(allEdges.size());
+            Edge reverseEdge = reverse(forwardEdge, allEdges.size() + 1);
+            adj.get(forwardEdge.from).add(forwardEdge);
+            adj.get(forwardEdge.to).add(reverseEdge);
+            allEdges.add(forwardEdge);
+            allEdges.add(reverseEdge);
+        }
+        long endTime = System.currentTimeMillis();
+        return new SteinerGraph(adj, new ArrayList<>(nodeOrder), new HashSet<>(nodeOrder), new HashMap<>(metadata),
+                allEdges, new HashSet<>(terminals), endTime - startTime, sourcePath, costModel);
+    }
+
+    /**
+     * @return The other direction of an edge, with every from/to column swapped, carrying the given id.
+     */
+    private static Edge reverse(Edge e, int id) {
+        return new Edge(e.to, e.from, e.weight, e.toName, e.fromName, e.isTerminalTo, e.isTerminalFrom, e.toDifficulty,
+                e.fromDifficulty, e.toCategory, e.fromCategory, e.edgeType, e.overlapScore, e.isPrerequisiteHard, e.estimatedHours, id);
+    }
+
+    /**
+     * Registers a node the first time it appears; later rows naming it allocate nothing.
+     */
+    private static void addNode(Map<String, List<Edge>> adj, List<String> nodeOrder, Set<String> nodes,
+                                Map<String, NodeMetadata> metadata, String nodeId, String name, int difficulty, String category) {
+        if (nodes.add(nodeId)) {
+            nodeOrder.add(nodeId);
+            adj.put(nodeId, new ArrayList<>());
+            metadata.put(nodeId, new NodeMetadata(name, difficulty, category));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+import java.util.*;
+
+/**
+ * Container for the results of a Steiner Tree algorithm execution.
+ * Shared by all solvers; runtimeMs covers the solve only, not graph loading.
+ *
+ * The tree is held as sorted primitive arrays of undirected edge ids (CSV rows, see
+ * {@link SteinerGraph#directedEdges}) and node indices, so the cost, counts and comparisons
+ * between solvers never touch Edge objects. The readable edge and node lists are built on first
+ * request and kept.
+ */
+public class SteinerResult {
+    final SteinerGraph graph;
+    /** The tree's undirected edge ids, ascending. */
+    final int[] edgeRows;
+    /** The tree's node indices, ascending: every edge endpoint plus every terminal. */
+    final int[] nodeIndices;
+    final double totalCost;
+    final long runtimeMs;
+
+    private List<SteinerGraph.Edge> steinerEdges;
+    private List<String> steinerNodes;
+
+    /**
+     * @param graph The graph the tree was solved on.
+     * @param edgeRows The tree's undirected edge ids, without duplicates; sorted in place.
+     * @param terminals The terminals, which belong to the tree even when no edge reaches them.
+     * @param runtimeMs The solve time.
+     */
+    public SteinerResult(SteinerGraph graph, int[] edgeRows, Collection<String> terminals, long runtimeMs) {
+        Arrays.sort(edgeRows);
+        this.graph = graph;
+        this.edgeRows = edgeRows;
+        this.runtimeMs = runtimeMs;
+
+        double cost = 0.0;
+        BitSet nodes = new BitSet(graph.nodeCount());
+        for (int row : edgeRows) {
+            cost += graph.edgeCost[row];
+            nodes.set(graph.edgeHead[2 * row]);
+            nodes.set(graph.edgeHead[2 * row + 1]);
+        }
+        for (String terminal : terminals) {
+            nodes.set(graph.indexOf(terminal));
+        }
+        this.totalCost = cost;
+        this.nodeIndices = nodes.stream().toArray();
+    }
+
+    /**
+     * @param rows The tree's undirected edge ids.
+     */
+    static SteinerResult fromRows(SteinerGraph graph, BitSet rows, Collection<String> terminals, long runtimeMs) {
+        return new SteinerResult(graph, rows.stream().toArray(), terminals, runtimeMs);
+    }
+
+    /**
+     * @return The same tree with a different runtime, sharing this result's arrays.
+     */
+    SteinerResult withRuntime(long runtimeMs) {
+        return new SteinerResult(this, runtimeMs);
+    }
+
+    private SteinerResult(SteinerResult tree, long runtimeMs) {
+        this.graph = tree.graph;
+        this.edgeRows = tree.edgeRows;
+        this.nodeIndices = tree.nodeIndices;
+        this.totalCost = tree.totalCost;
+        this.runtimeMs = runtimeMs;
+    }
+
+    public int nodeCount() {
+        return nodeIndices.length;
+    }
+
+    public int edgeCount() {
+        return edgeRows.length;
+    }
+
+    /**
+     * @return The tree's edges in CSV order, each in the direction of its CSV row.
+     */
+    public synchronized List<SteinerGraph.Edge> getSteinerEdges() {
+        if (steinerEdges == null) {
+            SteinerGraph.Edge[] edges = new SteinerGraph.Edge[edgeRows.length];
+            for (int i = 0; i < edgeRows.length; i++) {
+                edges[i] = graph.directedEdges[2 * edgeRows[i]];
+            }
+            steinerEdges = Collections.unmodifiableList(Arrays.asList(edges));
+        }
+        return steinerEdges;
+    }
+
+    /**
+     * @return The tree's node IDs in load order.
+     */
+    public synchronized List<String> getSteinerNodes() {
+        if (steinerNodes == null) {
+            String[] nodes = new String[nodeIndices.length];
+            for (int i = 0; i < nodeIndices.length; i++) {
+                nodes[i] = graph.nodeIds[nodeIndices[i]];
+            }
+            steinerNodes = Collections.unmodifiableList(Arrays.asList(nodes));
+        }
+        return steinerNodes;
+    }
+
+    /**
+     * @return The number of edges this tree shares with another tree on the same graph.
+     */
+    public int sharedEdges(SteinerResult other) {
+        int shared = 0;
+        for (int i = 0, j = 0; i < edgeRows.length && j < other.edgeRows.length; ) {
+            if (edgeRows[i] < other.edgeRows[j]) i++;
+            else if (edgeRows[i] > other.edgeRows[j]) j++;
+            else { shared++; i++; j++; }
+        }
+        return shared;
+    }
+
+    /**
+     * @return true if both trees consist of exactly the same edges.
+     */
+    public boolean sameTree(SteinerResult other) {
+        return Arrays.equals(edgeRows, other.edgeRows);
+    }
+}
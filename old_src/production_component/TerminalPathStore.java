@@ -0,0 +1,250 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Persists KMB steps A and B (the per-terminal shortest-path trees and the terminal distance
+ * matrix) in a memory-mapped binary file, keyed by a SHA-256 hash of the dataset CSV and the
+ * compiled edge costs. A rerun on an unchanged dataset, with the same cost model and terminal set,
+ * reads the file instead of searching.
+ *
+ * The file is mapped rather than read through a stream, which saves the kernel-to-user copies, but
+ * {@link #load} still copies every tree into heap arrays because KMB works on ShortestPaths.Tree
+ * objects; there is no zero-copy access to the stored trees. Every length and index is checked
+ * before it is used, and every tree must have ascending nodes and predecessor chains that follow
+ * graph edges back to its source, so a truncated or corrupt store reads as stale and is rebuilt.
+ *
+ * Layout (big-endian):
+ * <pre>
+ * int magic, int version, byte[32] content hash, int nodeCount, int directedEdgeCount, int T
+ * int[T] terminal node indices
+ * double[T * T] terminal distance matrix
+ * T times: int size, int[size] nodes, double[size] dist, int[size] predEdge, int[size] predPos
+ * </pre>
+ */
+final class TerminalPathStore {
+
+    private static final int MAGIC = 0x4B4D4254; // "KMBT"
+    private static final int VERSION = 2;
+    private static final int HASH_BYTES = 32;
+
+    /**
+     * Steps A and B as read back from a store, in the caller's terminal order.
+     */
+    static final class Entry {
+        final ShortestPaths.Tree[] trees;
+        final MetricClosure closure;
+
+        Entry(ShortestPaths.Tree[] trees, MetricClosure closure) {
+            this.trees = trees;
+            this.closure = closure;
+        }
+    }
+
+    private TerminalPathStore() {
+    }
+
+    /**
+     * Hashes the CSV a graph was loaded from, by mapping it and feeding it to SHA-256, followed by
+     * the graph's compiled edge costs, since the same CSV under another cost model has other paths.
+     * @param graph The loaded graph.
+     * @return The 32-byte digest.
+     * @throws IOException If the CSV cannot be read.
+     */
+    static byte[] contentHash(SteinerGraph graph) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        try (FileChannel channel = FileChannel.open(Paths.get(graph.sourcePath), StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += Integer.MAX_VALUE) {
+                long length = Math.min(Integer.MAX_VALUE, size - position);
+                digest.update(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+            }
+        }
+        ByteBuffer costs = ByteBuffer.allocate(graph.edgeCost.length * Double.BYTES);
+        costs.asDoubleBuffer().put(graph.edgeCost);
+        digest.update(costs);
+        return digest.digest();
+    }
+
+    /**
+     * Maps a store and returns its contents if it matches the dataset hash, the graph's shape and
+     * the requested terminal set.
+     * @param storePath The store file.
+     * @param contentHash The current content hash.
+     * @param graph The loaded graph.
+     * @param terminalIndex The node index of each requested terminal.
+     * @return The stored trees and distances reordered to terminalIndex, or null if absent, stale,
+     *         truncated or corrupt.
+     * @throws IOException If the file exists but cannot be read.
+     */
+    static Entry load(Path storePath, byte[] contentHash, SteinerGraph graph, int[] terminalIndex) throws IOException {
+        if (!Files.isRegularFile(storePath)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(storePath, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) return null;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.remaining() < 8 + HASH_BYTES + 12) return null;
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) return null;
+            byte[] storedHash = new byte[HASH_BYTES];
+            buffer.get(storedHash);
+            if (!Arrays.equals(storedHash, contentHash)) return null;
+            if (buffer.getInt() != graph.nodeCount() || buffer.getInt() != graph.directedEdges.length) return null;
+
+            int t = buffer.getInt();
+            if (t != terminalIndex.length) return null;
+            if (buffer.remaining() < (long) t * Integer.BYTES + (long) t * t * Double.BYTES) return null;
+            int[] storedIndex = new int[t];
+            Map<Integer, Integer> storedPosition = new HashMap<>();
+            for (int i = 0; i < t; i++) {
+                storedIndex[i] = buffer.getInt();
+                if (storedIndex[i] < 0 || storedIndex[i] >= graph.nodeCount()) return null;
+                storedPosition.put(storedIndex[i], i);
+            }
+            // position[i] is where the caller's terminal i sits in the file
+            int[] position = new int[t];
+            for (int i = 0; i < t; i++) {
+                Integer p = storedPosition.get(terminalIndex[i]);
+                if (p == null) return null;
+                position[i] = p;
+            }
+
+            double[] storedClosure = new double[t * t];
+            buffer.asDoubleBuffer().get(storedClosure);
+            buffer.position(buffer.position() + t * t * Double.BYTES);
+            MetricClosure closure = new MetricClosure(t);
+            for (int i = 0; i < t; i++) {
+                for (int j = 0; j < t; j++) {
+                    closure.dist[i * t + j] = storedClosure[position[i] * t + position[j]];
+                }
+            }
+
+            ShortestPaths.Tree[] storedTrees = new ShortestPaths.Tree[t];
+            for (int i = 0; i < t; i++) {
+                storedTrees[i] = readTree(buffer, storedIndex[i], graph);
+                if (storedTrees[i] == null) return null;
+            }
+            if (buffer.hasRemaining()) return null;
+            ShortestPaths.Tree[] trees = new ShortestPaths.Tree[t];
+            for (int i = 0; i < t; i++) {
+                trees[i] = storedTrees[position[i]];
+            }
+            return new Entry(trees, closure);
+        }
+    }
+
+    /**
+     * Writes steps A and B to a store. The file is written under a temporary name and then moved
+     * into place, so a concurrent or interrupted run never sees a half-written store.
+     * @param storePath The store file.
+     * @param contentHash The content hash to key the store on.
+     * @param graph The loaded graph.
+     * @param terminalIndex The node index of each terminal.
+     * @param trees The shortest-path tree rooted at each terminal, in the same order.
+     * @param closure The terminal distance matrix, in the same order.
+     * @throws IOException If the file cannot be written.
+     */
+    static void save(Path storePath, byte[] contentHash, SteinerGraph graph, int[] terminalIndex,
+                     ShortestPaths.Tree[] trees, MetricClosure closure) throws IOException {
+        int t = terminalIndex.length;
+        long size = 8 + HASH_BYTES + 12 + (long) t * Integer.BYTES + (long) t * t * Double.BYTES;
+        for (ShortestPaths.Tree tree : trees) {
+            size += Integer.BYTES + (long) tree.nodes.length * (3 * Integer.BYTES + Double.BYTES);
+        }
+        if (size > Integer.MAX_VALUE) {
+            System.err.println("Terminal path store skipped: " + size + " bytes exceeds a single mapping");
+            return;
+        }
+
+        Path parent = storePath.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, storePath.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.putInt(MAGIC).putInt(VERSION).put(contentHash);
+                buffer.putInt(graph.nodeCount()).putInt(graph.directedEdges.length).putInt(t);
+                for (int index : terminalIndex) buffer.putInt(index);
+                buffer.asDoubleBuffer().put(closure.dist, 0, t * t);
+                buffer.position(buffer.position() + t * t * Double.BYTES);
+                for (ShortestPaths.Tree tree : trees) {
+                    writeTree(buffer, tree);
+                }
+                buffer.force();
+            }
+            Files.move(temp, storePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeTree(ByteBuffer buffer, ShortestPaths.Tree tree) {
+        int size = tree.nodes.length;
+        buffer.putInt(size);
+        buffer.asIntBuffer().put(tree.nodes);
+        buffer.position(buffer.position() + size * Integer.BYTES);
+        buffer.asDoubleBuffer().put(tree.dist);
+        buffer.position(buffer.position() + size * Double.BYTES);
+        buffer.asIntBuffer().put(tree.predEdge);
+        buffer.position(buffer.position() + size * Integer.BYTES);
+        buffer.asIntBuffer().put(tree.predPos);
+        buffer.position(buffer.position() + size * Integer.BYTES);
+    }
+
+    /**
+     * @return The tree, or null if the buffer is too short, holds an index outside the graph, or
+     *         does not describe a shortest-path tree rooted at source.
+     */
+    private static ShortestPaths.Tree readTree(ByteBuffer buffer, int source, SteinerGraph graph) {
+        if (buffer.remaining() < Integer.BYTES) return null;
+        int size = buffer.getInt();
+        if (size < 0 || size > graph.nodeCount()) return null;
+        if (buffer.remaining() < (long) size * (3 * Integer.BYTES + Double.BYTES)) return null;
+        int[] nodes = new int[size];
+        double[] dist = new double[size];
+        int[] predEdge = new int[size];
+        int[] predPos = new int[size];
+        buffer.asIntBuffer().get(nodes);
+        buffer.position(buffer.position() + size * Integer.BYTES);
+        buffer.asDoubleBuffer().get(dist);
+        buffer.position(buffer.position() + size * Double.BYTES);
+        buffer.asIntBuffer().get(predEdge);
+        buffer.position(buffer.position() + size * Integer.BYTES);
+        buffer.asIntBuffer().get(predPos);
+        buffer.position(buffer.position() + size * Integer.BYTES);
+        for (int i = 0; i < size; i++) {
+            // Tree.position binary-searches nodes, so they must be strictly ascending
+            if (nodes[i] < 0 || nodes[i] >= graph.nodeCount() || (i > 0 && nodes[i] <= nodes[i - 1])) return null;
+            if (predEdge[i] < 0) {
+                if (predEdge[i] != -1 || predPos[i] != -1 || nodes[i] != source) return null;
+            } else {
+                if (predEdge[i] >= graph.directedEdges.length || predPos[i] < 0 || predPos[i] >= size) return null;
+                if (graph.edgeHead[predEdge[i]] != nodes[i] || graph.edgeTail(predEdge[i]) != nodes[predPos[i]]) return null;
+            }
+        }
+        // Every predecessor chain must reach the source: state 1 marks the chain being walked, 2 the
+        // positions already known to reach it, so a cycle is met as a 1
+        byte[] state = new byte[size];
+        for (int i = 0; i < size; i++) {
+            int p = i;
+            while (p >= 0 && state[p] == 0) {
+                state[p] = 1;
+                p = predPos[p];
+            }
+            if (p >= 0 && state[p] == 1) return null;
+            for (p = i; p >= 0 && state[p] == 1; p = predPos[p]) state[p] = 2;
+        }
+        return new ShortestPaths.Tree(source, nodes, dist, predEdge, predPos);
+    }
+}
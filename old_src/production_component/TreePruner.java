@@ -0,0 +1,80 @@
+import java.util.*;
+
+/**
+ * Linear-time leaf pruning for the {@link WorkingTree} built by KMBAlgorithm and TakahashiMatsuyama.
+ * The tree is an adjacency map, a node set and a flat edge list, with every edge stored in both
+ * directions; the pruner works directly on those three structures.
+ */
+final class TreePruner {
+
+    private TreePruner() {
+    }
+
+    /**
+     * Repeatedly removes non-terminal leaves (nodes of degree 1) until none are left.
+     * The tree's nodes are indexed once; degrees live in an int array, removals in a boolean
+     * array, and leaves are peeled from an int worklist, so every node and edge is visited a
+     * constant number of times. Afterwards only the adjacency lists of surviving neighbours of
+     * removed nodes are edited, and the edge list is filtered once. Overall O(V + E).
+     * @param adj The tree's adjacency lists, modified in place.
+     * @param nodes The tree's node set, modified in place.
+     * @param allEdges The tree's edge list (both directions of every edge), modified in place.
+     * @param terminals The nodes that must never be pruned.
+     */
+    static void prune(Map<String, List<SteinerGraph.Edge>> adj, Set<String> nodes,
+                      List<SteinerGraph.Edge> allEdges, Set<String> terminals) {
+        String[] ids = nodes.toArray(new String[0]);
+        int n = ids.length;
+        Map<String, Integer> index = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            index.put(ids[i], i);
+        }
+
+        // Each node's adjacency list by index, so the peeling loop does no list lookups
+        List<List<SteinerGraph.Edge>> lists = new ArrayList<>(n);
+        int[] degree = new int[n];
+        int[] leaves = new int[n];
+        int top = 0;
+        for (int i = 0; i < n; i++) {
+            List<SteinerGraph.Edge> edges = adj.getOrDefault(ids[i], Collections.emptyList());
+            lists.add(edges);
+            degree[i] = edges.size();
+            if (degree[i] == 1 && !terminals.contains(ids[i])) {
+                leaves[top++] = i;
+            }
+        }
+
+        boolean[] removed = new boolean[n];
+        int removedCount = 0;
+        while (top > 0) {
+            int node = leaves[--top];
+            if (removed[node]) continue;
+            removed[node] = true;
+            removedCount++;
+
+            // The one incident edge still alive leads to the neighbour whose degree drops
+            for (SteinerGraph.Edge edge : lists.get(node)) {
+                int neighbour = index.get(edge.to);
+                if (removed[neighbour]) continue;
+                if (--degree[neighbour] == 1 && !terminals.contains(edge.to)) {
+                    leaves[top++] = neighbour;
+                }
+            }
+        }
+
+        if (removedCount == 0) return;
+        boolean[] touched = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            if (!removed[i]) continue;
+            nodes.remove(ids[i]);
+            adj.remove(ids[i]);
+            for (SteinerGraph.Edge edge : lists.get(i)) {
+                int neighbour = index.get(edge.to);
+                if (removed[neighbour] || touched[neighbour]) continue;
+                touched[neighbour] = true;
+                lists.get(neighbour).removeIf(e -> removed[index.get(e.to)]);
+            }
+        }
+        allEdges.removeIf(e -> removed[index.get(e.from)] || removed[index.get(e.to)]);
+    }
+}
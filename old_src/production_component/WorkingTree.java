@@ -0,0 +1,79 @@
+import java.util.*;
+
+/**
+ * The Steiner tree a solver builds while solving, shared by KMBAlgorithm and TakahashiMatsuyama:
+ * a mutable adjacency list holding edges of the original graph in both directions. The shared
+ * SteinerGraph is never modified; this only collects the Edge objects it already owns.
+ */
+final class WorkingTree {
+    Map<String, List<SteinerGraph.Edge>> adj = new HashMap<>();
+    Set<String> nodes = new HashSet<>();
+    Map<String, SteinerGraph.NodeMetadata> metadata = new HashMap<>();
+    List<SteinerGraph.Edge> allEdges = new ArrayList<>();
+    // Undirected edge ids (CSV rows) already in the graph, so overlapping paths add an edge once
+    BitSet edgeIds = new BitSet();
+
+    public void addNode(String nodeId, SteinerGraph.NodeMetadata meta) {
+        adj.putIfAbsent(nodeId, new ArrayList<>());
+        metadata.putIfAbsent(nodeId, meta);
+        nodes.add(nodeId);
+    }
+
+    public void addEdge(SteinerGraph.Edge edge) {
+        // Ensure nodes exist in the graph before adding an edge
+        adj.putIfAbsent(edge.from, new ArrayList<>());
+        adj.putIfAbsent(edge.to, new ArrayList<>());
+        nodes.add(edge.from);
+        nodes.add(edge.to);
+        adj.get(edge.from).add(edge);
+        allEdges.add(edge);
+    }
+
+    /**
+     * Adds an edge of the original graph in both directions, unless it is already present.
+     * Both directions are the Edge objects the loader created, so nothing is allocated.
+     * @param original The shared course graph.
+     * @param directedId Either directed id of the edge.
+     */
+    public void addOriginalEdge(SteinerGraph original, int directedId) {
+        if (edgeIds.get(directedId >>> 1)) return;
+        edgeIds.set(directedId >>> 1);
+        SteinerGraph.Edge edge = original.directedEdges[directedId];
+        addNode(edge.from, original.metadata.get(edge.from));
+        addNode(edge.to, original.metadata.get(edge.to));
+        addEdge(edge);
+        addEdge(original.directedEdges[directedId ^ 1]);
+    }
+
+    public List<SteinerGraph.Edge> getNeighbors(String node) {
+        return adj.getOrDefault(node, Collections.emptyList());
+    }
+
+    public List<SteinerGraph.Edge> getAllEdges() {
+        return allEdges;
+    }
+
+    public boolean hasNode(String node) {
+        return nodes.contains(node);
+    }
+
+    /**
+     * @return The undirected edge ids (CSV rows) of the edges still in the graph.
+     */
+    public int[] edgeRows() {
+        int[] rows = new int[allEdges.size() / 2];
+        int count = 0;
+        for (SteinerGraph.Edge e : allEdges) {
+            if ((e.id & 1) == 0) rows[count++] = e.id >>> 1;
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    /**
+     * Iteratively prunes non-terminal leaf nodes (degree 1) with the shared O(V + E) {@link TreePruner}.
+     * @param terminals The set of terminal nodes that should not be pruned.
+     */
+    public void prune(Set<String> terminals) {
+        TreePruner.prune(adj, nodes, allEdges, terminals);
+    }
+}
@@ -0,0 +1,313 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.stream.IntStream;
+
+public class AllPairs {
+
+    // 64 x 64 doubles = 32 KB per tile, so the three tiles touched by one kernel call stay in L2
+    static final int TILE = 64;
+    static final int MAGIC = 0x41505332; // "APS2"
+    static final int HASH_BYTES = 32;
+
+    // Dense row-major n x n matrices: entry [i * n + j] is the best value from ids[i] to ids[j].
+    // Memory is 20 * n^2 bytes, so this is meant for catalogs of a few thousand courses.
+    public static class Result {
+        String[] ids;
+        Map<String, Integer> indexOf;
+        double[] weight;      // weightNonNegative (what Dijkstra minimizes)
+        double[] difficulty;  // combinedDifficulty (what BellmanFord minimizes)
+        int[] hops;           // edge count (what SSSP minimizes), Integer.MAX_VALUE when unreachable
+        boolean negativeCycle;
+        long weightTimeMs;
+        long difficultyTimeMs;
+        long hopsTimeMs;
+        boolean cached;       // read back from a cache file, so the *TimeMs fields are 0
+
+        public Result(String[] ids, double[] weight, double[] difficulty, int[] hops, boolean negativeCycle,
+                      long weightTimeMs, long difficultyTimeMs, long hopsTimeMs) {
+            this.ids = ids;
+            this.weight = weight;
+            this.difficulty = difficulty;
+            this.hops = hops;
+            this.negativeCycle = negativeCycle;
+            this.weightTimeMs = weightTimeMs;
+            this.difficultyTimeMs = difficultyTimeMs;
+            this.hopsTimeMs = hopsTimeMs;
+
+            this.indexOf = new HashMap<>(ids.length * 2);
+            for (int i = 0; i < ids.length; i++) indexOf.put(ids[i], i);
+        }
+
+        private int cell(String src, String dst) {
+            Integer i = indexOf.get(src);
+            Integer j = indexOf.get(dst);
+            if (i == null || j == null) return -1;
+            return i * ids.length + j;
+        }
+
+        public double weight(String src, String dst) {
+            int c = cell(src, dst);
+            return c < 0 ? Double.POSITIVE_INFINITY : weight[c];
+        }
+
+        public double difficulty(String src, String dst) {
+            int c = cell(src, dst);
+            return c < 0 ? Double.POSITIVE_INFINITY : difficulty[c];
+        }
+
+        public int hops(String src, String dst) {
+            int c = cell(src, dst);
+            return c < 0 ? Integer.MAX_VALUE : hops[c];
+        }
+
+        // Flat binary layout: header (keyed on the SHA-256 of the source CSV), node ids, then the three
+        // matrices row by row
+        public void save(String path, byte[] sourceHash) throws IOException {
+            int n = ids.length;
+
+            ByteArrayOutputStream header = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(header);
+            out.writeInt(MAGIC);
+            out.write(sourceHash);
+            out.writeInt(n);
+            out.writeBoolean(negativeCycle);
+            for (String id : ids) out.writeUTF(id);
+            out.flush();
+
+            try (FileChannel ch = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ch.write(ByteBuffer.wrap(header.toByteArray()));
+
+                ByteBuffer row = ByteBuffer.allocateDirect(n * Double.BYTES);
+                for (double[] m : new double[][] { weight, difficulty }) {
+                    for (int i = 0; i < n; i++) {
+                        row.clear();
+                        row.asDoubleBuffer().put(m, i * n, n);
+                        writeFully(ch, row);
+                    }
+                }
+                for (int i = 0; i < n; i++) {
+                    row.clear();
+                    row.limit(n * Integer.BYTES);
+                    row.asIntBuffer().put(hops, i * n, n);
+                    writeFully(ch, row);
+                }
+            }
+        }
+
+        // Returns null when the file is missing, unreadable or was written for a different source
+        public static Result load(String path, byte[] sourceHash) {
+            File f = new File(path);
+            if (!f.exists()) return null;
+
+            try (FileChannel ch = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(ch)));
+                if (in.readInt() != MAGIC) return null;
+                byte[] storedHash = new byte[HASH_BYTES];
+                in.readFully(storedHash);
+                if (!Arrays.equals(storedHash, sourceHash)) return null;
+                int count = in.readInt();
+                if (count < 0) return null;
+                String[] ids = new String[count];
+                boolean negativeCycle = in.readBoolean();
+                int headerBytes = 4 + HASH_BYTES + 4 + 1;
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = in.readUTF();
+                    headerBytes += 2 + utfLength(ids[i]);
+                }
+
+                int n = ids.length;
+                long cells = (long) n * n;
+                if (ch.size() != headerBytes + cells * (2 * Double.BYTES + Integer.BYTES)) return null;
+
+                double[] weight = new double[n * n];
+                double[] difficulty = new double[n * n];
+                int[] hops = new int[n * n];
+
+                ch.position(headerBytes);
+                ByteBuffer row = ByteBuffer.allocateDirect(n * Double.BYTES);
+                for (double[] m : new double[][] { weight, difficulty }) {
+                    for (int i = 0; i < n; i++) {
+                        row.clear();
+                        readFully(ch, row);
+                        row.flip();
+                        row.asDoubleBuffer().get(m, i * n, n);
+                    }
+                }
+                for (int i = 0; i < n; i++) {
+                    row.clear();
+                    row.limit(n * Integer.BYTES);
+                    readFully(ch, row);
+                    row.flip();
+                    row.asIntBuffer().get(hops, i * n, n);
+                }
+
+                Result r = new Result(ids, weight, difficulty, hops, negativeCycle, 0, 0, 0);
+                r.cached = true;
+                return r;
+            } catch (IOException e) {
+                return null;
+            }
+        }
+    }
+
+    public static Result run(Graph g) {
+        GraphIndex idx = g.index();
+        int n = idx.size();
+
+        long start = System.currentTimeMillis();
+        double[] weight = initMatrix(idx, idx.weightNonNegative);
+        floydWarshall(weight, n);
+        long weightTime = System.currentTimeMillis() - start;
+
+        start = System.currentTimeMillis();
+        double[] difficulty = initMatrix(idx, idx.combinedDifficulty);
+        floydWarshall(difficulty, n);
+        boolean negativeCycle = hasNegativeCycle(weight, n) || hasNegativeCycle(difficulty, n);
+        long difficultyTime = System.currentTimeMillis() - start;
+
+        // Unit weights need no Floyd-Warshall: the bit-parallel BFS fills the hop matrix in O(V * E / 64)
+        start = System.currentTimeMillis();
+        MultiSourceBFS.Result bfs = MultiSourceBFS.run(g, Arrays.asList(idx.ids));
+        int[] hops = new int[n * n];
+        for (int i = 0; i < n; i++) System.arraycopy(bfs.hops[i], 0, hops, i * n, n);
+        long hopsTime = System.currentTimeMillis() - start;
+
+        return new Result(idx.ids, weight, difficulty, hops, negativeCycle, weightTime, difficultyTime, hopsTime);
+    }
+
+    // Reuses the matrices saved next to the dataset while the CSV's content is unchanged, otherwise
+    // rebuilds and saves them. A file that cannot be hashed is never cached.
+    public static Result loadOrRun(Graph g, String csvPath, String cachePath) {
+        byte[] hash;
+        try {
+            hash = contentHash(csvPath);
+        } catch (IOException e) {
+            return run(g);
+        }
+
+        Result cached = Result.load(cachePath, hash);
+        if (cached != null) return cached;
+
+        Result r = run(g);
+        try {
+            r.save(cachePath, hash);
+        } catch (IOException e) {
+            System.err.println("Could not save all-pairs matrices: " + e.getMessage());
+        }
+        return r;
+    }
+
+    // SHA-256 of the file's bytes, read through a mapping
+    static byte[] contentHash(String path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        try (FileChannel ch = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            long size = ch.size();
+            for (long position = 0; position < size; position += Integer.MAX_VALUE) {
+                long length = Math.min(Integer.MAX_VALUE, size - position);
+                digest.update(ch.map(FileChannel.MapMode.READ_ONLY, position, length));
+            }
+        }
+        return digest.digest();
+    }
+
+    private static double[] initMatrix(GraphIndex idx, double[] arcWeight) {
+        int n = idx.size();
+        double[] d = new double[n * n];
+        Arrays.fill(d, Double.POSITIVE_INFINITY);
+        for (int i = 0; i < n; i++) d[i * n + i] = 0.0;
+
+        for (int u = 0; u < n; u++) {
+            for (int a = idx.offsets[u]; a < idx.offsets[u + 1]; a++) {
+                int c = u * n + idx.targets[a];
+                if (arcWeight[a] < d[c]) d[c] = arcWeight[a];
+            }
+        }
+        return d;
+    }
+
+    // Blocked Floyd-Warshall: for each diagonal tile k, (1) close tile (k,k), (2) the tiles in row k
+    // and column k in parallel, (3) every remaining tile in parallel.
+    static void floydWarshall(double[] d, int n) {
+        int blocks = (n + TILE - 1) / TILE;
+
+        for (int kb = 0; kb < blocks; kb++) {
+            final int k = kb;
+            relaxTile(d, n, k, k, k);
+
+            IntStream.range(0, 2 * blocks).parallel().forEach(t -> {
+                int b = t % blocks;
+                if (b == k) return;
+                if (t < blocks) relaxTile(d, n, k, b, k);
+                else relaxTile(d, n, b, k, k);
+            });
+
+            IntStream.range(0, blocks * blocks).parallel().forEach(t -> {
+                int ib = t / blocks;
+                int jb = t % blocks;
+                if (ib == k || jb == k) return;
+                relaxTile(d, n, ib, jb, k);
+            });
+        }
+    }
+
+    private static void relaxTile(double[] d, int n, int ib, int jb, int kb) {
+        int iEnd = Math.min(n, (ib + 1) * TILE);
+        int jStart = jb * TILE;
+        int jEnd = Math.min(n, (jb + 1) * TILE);
+        int kEnd = Math.min(n, (kb + 1) * TILE);
+
+        for (int k = kb * TILE; k < kEnd; k++) {
+            int kRow = k * n;
+            for (int i = ib * TILE; i < iEnd; i++) {
+                int iRow = i * n;
+                double dik = d[iRow + k];
+                if (dik == Double.POSITIVE_INFINITY) continue;
+                for (int j = jStart; j < jEnd; j++) {
+                    double nd = dik + d[kRow + j];
+                    if (nd < d[iRow + j]) d[iRow + j] = nd;
+                }
+            }
+        }
+    }
+
+    static boolean hasNegativeCycle(double[] d, int n) {
+        for (int i = 0; i < n; i++) {
+            if (d[i * n + i] < 0) return true;
+        }
+        return false;
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) ch.write(buf);
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            if (ch.read(buf) < 0) throw new EOFException();
+        }
+    }
+
+    private static int utfLength(String s) {
+        int len = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) len += 1;
+            else if (c > 0x07FF) len += 3;
+            else len += 2;
+        }
+        return len;
+    }
+}
@@ -64,14 +64,23 @@ public class AutoEvaluator {
         // Run all algorithms from all sources
         System.out.println("\n⏳ Running all algorithms from all sources...\n");
         
-        Map<String, Dijkstra.Result> dijkstraResults = new HashMap<>();
-        Map<String, BellmanFord.Result> bellmanResults = new HashMap<>();
-        Map<String, SSSP.Result> ssspResults = new HashMap<>();
-        
-        for (String src : g.nodes) {
-            dijkstraResults.put(src, Dijkstra.run(g, src));
-            bellmanResults.put(src, BellmanFord.run(g, src));
-            ssspResults.put(src, SSSP.run(g, src));
+        // All-pairs matrices (Dijkstra / Bellman-Ford / BFS answers for every source), cached next to the
+        // dataset, so every lookup below is an array read
+        AllPairs.Result apsp = AllPairs.loadOrRun(g, "dataset_final.csv", "dataset_final.apsp");
+        // Floyd-Warshall difficulties are not meaningful under a negative cycle, so Bellman-Ford answers
+        // come from one parallel Bellman-Ford run on the reversed graph instead: its distances from the
+        // target are every source's distance to it, -Infinity where a path can loop the cycle
+        BellmanFord.Result toTarget = null;
+        if (apsp.negativeCycle) {
+            System.out.println("⚠️  combined_difficulty has a negative cycle - Bellman-Ford costs of -Infinity pass through it");
+            toTarget = ParallelBellmanFord.run(g.reversed(), target);
+        }
+        // The times below are for building each answer for every source at once, not per query, and
+        // there is nothing to time when the matrices came from the cache
+        long bellmanTimeMs = toTarget != null ? toTarget.timeMs : apsp.difficultyTimeMs;
+        boolean bellmanCached = toTarget == null && apsp.cached;
+        if (apsp.cached) {
+            System.out.println("All-pairs matrices loaded from cache (dataset_final.apsp)");
         }
         
         // Find best source for each algorithm
@@ -89,21 +98,21 @@ public class AutoEvaluator {
         for (String src : g.nodes) {
             if (!src.equals(target)) {
                 // Dijkstra
-                double dDist = dijkstraResults.get(src).dist.get(target);
+                double dDist = apsp.weight(src, target);
                 if (dDist < bestDistDijkstra) {
                     bestDistDijkstra = dDist;
                     bestSourceDijkstra = src;
                 }
                 
                 // Bellman-Ford
-                double bDist = bellmanResults.get(src).dist.get(target);
+                double bDist = toTarget != null ? toTarget.dist.get(src) : apsp.difficulty(src, target);
                 if (bDist < bestDistBellman) {
                     bestDistBellman = bDist;
                     bestSourceBellman = src;
                 }
                 
                 // SSSP with Bellman-Ford tie-breaker
-                int sDist = ssspResults.get(src).dist.get(target);
+                int sDist = apsp.hops(src, target);
                 if (sDist < bestDistSSSP) {
                     // Found fewer hops
                     bestDistSSSP = sDist;
@@ -134,8 +143,8 @@ public class AutoEvaluator {
         if (bestDistDijkstra != Double.POSITIVE_INFINITY) {
             System.out.println("Best Source: " + bestSourceDijkstra + " (" + courseNames.get(bestSourceDijkstra) + ")");
             System.out.println("Total Cost:  " + bestDistDijkstra);
-            System.out.println("# of Hops:   " + ssspResults.get(bestSourceDijkstra).dist.get(target));
-            System.out.println("Time Taken:  " + dijkstraResults.get(bestSourceDijkstra).timeMs + " ms");
+            System.out.println("# of Hops:   " + apsp.hops(bestSourceDijkstra, target));
+            System.out.println("Build Time:  " + buildTime(apsp.cached, apsp.weightTimeMs) + " (all sources)");
             System.out.println("Use case:    Best for minimizing time/difficulty cost");
         } else {
             System.out.println("❌ Target unreachable from any source");
@@ -147,8 +156,8 @@ public class AutoEvaluator {
         if (bestDistBellman != Double.POSITIVE_INFINITY) {
             System.out.println("Best Source: " + bestSourceBellman + " (" + courseNames.get(bestSourceBellman) + ")");
             System.out.println("Total Cost:  " + bestDistBellman);
-            System.out.println("# of Hops:   " + ssspResults.get(bestSourceBellman).dist.get(target));
-            System.out.println("Time Taken:  " + bellmanResults.get(bestSourceBellman).timeMs + " ms");
+            System.out.println("# of Hops:   " + apsp.hops(bestSourceBellman, target));
+            System.out.println("Build Time:  " + buildTime(bellmanCached, bellmanTimeMs) + " (all sources)");
             System.out.println("Use case:    Best for maximizing learning efficiency (course synergy)");
         } else {
             System.out.println("❌ Target unreachable from any source");
@@ -160,10 +169,11 @@ public class AutoEvaluator {
         if (bestDistSSSP != Integer.MAX_VALUE) {
             System.out.println("Best Source: " + bestSourceSSSP + " (" + courseNames.get(bestSourceSSSP) + ")");
             System.out.println("# of Hops:   " + bestDistSSSP + " courses");
-            System.out.println("Time Taken:  " + ssspResults.get(bestSourceSSSP).timeMs + " ms ⚡");
+            System.out.println("Build Time:  " + buildTime(apsp.cached, apsp.hopsTimeMs) + " (all sources) ⚡");
             System.out.println("Use case:    Best for minimum prerequisite chain (fastest graduation)");
-            System.out.println("\nDijkstra cost if using same path: " + dijkstraResults.get(bestSourceSSSP).dist.get(target));
-            System.out.println("Bellman cost if using same path:  " + bellmanResults.get(bestSourceSSSP).dist.get(target));
+            System.out.println("\nDijkstra cost if using same path: " + apsp.weight(bestSourceSSSP, target));
+            System.out.println("Bellman cost if using same path:  "
+                    + (toTarget != null ? toTarget.dist.get(bestSourceSSSP) : apsp.difficulty(bestSourceSSSP, target)));
         } else {
             System.out.println("❌ Target unreachable from any source");
         }
@@ -172,14 +182,14 @@ public class AutoEvaluator {
         System.out.println("\n" + "=".repeat(80));
         System.out.println("📊 COMPARISON TABLE");
         System.out.println("=".repeat(80));
-        System.out.println("Algorithm     | Best Source | Cost/Hops | Time (ms) | Optimization Goal");
-        System.out.println("--------------|-------------|-----------|-----------|------------------");
-        System.out.printf("Dijkstra      | %-11s | %-9.1f | %-9d | Minimize difficulty\n", 
-                          bestSourceDijkstra, bestDistDijkstra, dijkstraResults.get(bestSourceDijkstra).timeMs);
-        System.out.printf("Bellman-Ford  | %-11s | %-9.1f | %-9d | Maximize efficiency\n", 
-                          bestSourceBellman, bestDistBellman, bellmanResults.get(bestSourceBellman).timeMs);
-        System.out.printf("SSSP (BFS)    | %-11s | %-9d | %-9d | Minimum courses ⭐\n", 
-                          bestSourceSSSP, bestDistSSSP, ssspResults.get(bestSourceSSSP).timeMs);
+        System.out.println("Algorithm     | Best Source | Cost/Hops | Build Time | Optimization Goal");
+        System.out.println("--------------|-------------|-----------|------------|------------------");
+        System.out.printf("Dijkstra      | %-11s | %-9.1f | %-10s | Minimize difficulty\n", 
+                          bestSourceDijkstra, bestDistDijkstra, buildTime(apsp.cached, apsp.weightTimeMs));
+        System.out.printf("Bellman-Ford  | %-11s | %-9.1f | %-10s | Maximize efficiency\n", 
+                          bestSourceBellman, bestDistBellman, buildTime(bellmanCached, bellmanTimeMs));
+        System.out.printf("SSSP (BFS)    | %-11s | %-9d | %-10s | Minimum courses ⭐\n", 
+                          bestSourceSSSP, bestDistSSSP, buildTime(apsp.cached, apsp.hopsTimeMs));
         System.out.println("=".repeat(80));
         
         // Overall recommendation
@@ -197,7 +207,7 @@ public class AutoEvaluator {
                                " hop(s), chose lowest difficulty (" + String.format("%.1f", bestSSSPDifficulty) + ")");
         }
         System.out.println("  ✓ Fastest graduation path");
-        System.out.println("  ✓ Execution time: " + ssspResults.get(bestSourceSSSP).timeMs + " ms (instant!)");
+        System.out.println("  ✓ Build time: " + buildTime(apsp.cached, apsp.hopsTimeMs) + " (all sources)");
         System.out.println("  ✓ Best for: \"I want to graduate QUICKLY with minimum prerequisites\"");
             
             System.out.println("\n🥈 RUNNER-UP: Bellman-Ford - Use If You Want Easier Path");
@@ -206,8 +216,8 @@ public class AutoEvaluator {
             System.out.println("Why #2?");
             System.out.println("  • MINIMUM DIFFICULTY: Cost = " + bestDistBellman);
             System.out.println("  • More courses but EASIER overall (considers overlap/synergy)");
-            System.out.println("  • Courses needed: " + ssspResults.get(bestSourceBellman).dist.get(target) + " course(s)");
-            System.out.println("  • Execution time: " + bellmanResults.get(bestSourceBellman).timeMs + " ms");
+            System.out.println("  • Courses needed: " + apsp.hops(bestSourceBellman, target) + " course(s)");
+            System.out.println("  • Build time: " + buildTime(bellmanCached, bellmanTimeMs) + " (all sources)");
             System.out.println("  • Best for: \"I want the EASIEST path, even if more courses\"");
             
             System.out.println("\n🥉 THIRD PLACE: Dijkstra - Standard Approach");
@@ -216,8 +226,8 @@ public class AutoEvaluator {
             System.out.println("Why #3?");
             System.out.println("  • Cost = " + bestDistDijkstra + " (higher than Bellman-Ford)");
             System.out.println("  • Doesn't account for overlap savings");
-            System.out.println("  • Courses needed: " + ssspResults.get(bestSourceDijkstra).dist.get(target) + " course(s)");
-            System.out.println("  • Execution time: " + dijkstraResults.get(bestSourceDijkstra).timeMs + " ms (faster than Bellman)");
+            System.out.println("  • Courses needed: " + apsp.hops(bestSourceDijkstra, target) + " course(s)");
+            System.out.println("  • Build time: " + buildTime(apsp.cached, apsp.weightTimeMs) + " (all sources)");
             System.out.println("  • Best for: \"Standard weighted shortest path (no special considerations)\"");
             
             System.out.println("\n" + "=".repeat(80));
@@ -239,7 +249,7 @@ public class AutoEvaluator {
         List<Map.Entry<String, Integer>> ranked = new ArrayList<>();
         for (String src : g.nodes) {
             if (!src.equals(target)) {
-                int dist = ssspResults.get(src).dist.get(target);
+                int dist = apsp.hops(src, target);
                 if (dist != Integer.MAX_VALUE) {
                     ranked.add(new AbstractMap.SimpleEntry<>(src, dist));
                 }
@@ -255,8 +265,8 @@ public class AutoEvaluator {
         for (Map.Entry<String, Integer> entry : ranked) {
             String src = entry.getKey();
             int hops = entry.getValue();
-            double dCost = dijkstraResults.get(src).dist.get(target);
-            double bCost = bellmanResults.get(src).dist.get(target);
+            double dCost = apsp.weight(src, target);
+            double bCost = apsp.difficulty(src, target);
             
             System.out.printf("%-4d | %-6s | %-28s | %-4d | %-13.1f | %-12.1f\n",
                               rank++, src, courseNames.get(src), hops, dCost, bCost);
@@ -264,6 +274,18 @@ public class AutoEvaluator {
         
         System.out.println("=".repeat(80));
         
+        // Alternatives in case a course on the best path is full
+        if (bestDistDijkstra != Double.POSITIVE_INFINITY) {
+            KShortestPaths.Result alternatives = KShortestPaths.run(g, bestSourceDijkstra, target, 3);
+            System.out.println("\n🔀 ALTERNATIVE PATHS FROM " + bestSourceDijkstra + " (Yen k-shortest, by weight_nonnegative):");
+            System.out.println("=".repeat(80));
+            int alt = 1;
+            for (KShortestPaths.Path p : alternatives.paths) {
+                System.out.println("  " + (alt++) + ". " + p);
+            }
+            System.out.println("=".repeat(80));
+        }
+        
         // Target company info
         if (!courseCompanies.get(target).equals("NONE")) {
             System.out.println("\n💼 TARGET COMPANY: " + courseCompanies.get(target));
@@ -272,5 +294,10 @@ public class AutoEvaluator {
         
         System.out.println("\n✅ Analysis Complete!");
     }
+
+    // Time to build one algorithm's answers for every source, or "cached" when nothing was built
+    private static String buildTime(boolean cached, long ms) {
+        return cached ? "cached" : ms + " ms";
+    }
 }
 
@@ -5,14 +5,27 @@ public class BellmanFord {
     public static class Result {
         Map<String, Double> dist;
         long timeMs;
+        boolean negativeCycle; // some node's distance is -Infinity
 
         public Result(Map<String, Double> dist, long timeMs) {
+            this(dist, timeMs, false);
+        }
+
+        public Result(Map<String, Double> dist, long timeMs, boolean negativeCycle) {
             this.dist = dist;
             this.timeMs = timeMs;
+            this.negativeCycle = negativeCycle;
         }
     }
 
     public static Result run(Graph g, String src) {
+        return run(g, src, null);
+    }
+
+    // Only follows edges the view allows; a null view allows every edge.
+    // Nodes reachable from a negative cycle that src reaches have no shortest path; they get
+    // -Infinity and the result is flagged, every other distance is exact.
+    public static Result run(Graph g, String src, GraphView view) {
         long start = System.currentTimeMillis();
 
         Map<String, Double> dist = new HashMap<>();
@@ -24,6 +37,7 @@ public class BellmanFord {
         for (int i = 0; i < V - 1; i++) {
             for (String u : g.adj.keySet()) {
                 for (Graph.Edge e : g.adj.get(u)) {
+                    if (view != null && !view.allows(e)) continue;
                     double nd = dist.get(u) + e.combinedDifficulty;
                     if (nd < dist.get(e.to)) {
                         dist.put(e.to, nd);
@@ -32,7 +46,33 @@ public class BellmanFord {
             }
         }
 
+        // Extra pass: an edge that still relaxes after V-1 passes is fed by a negative cycle, and so is
+        // everything it reaches
+        Deque<String> stack = new ArrayDeque<>();
+        for (String u : g.adj.keySet()) {
+            for (Graph.Edge e : g.adj.get(u)) {
+                if (view != null && !view.allows(e)) continue;
+                double dv = dist.get(e.to);
+                if (dv != Double.NEGATIVE_INFINITY && dist.get(u) + e.combinedDifficulty < dv) {
+                    dist.put(e.to, Double.NEGATIVE_INFINITY);
+                    stack.push(e.to);
+                }
+            }
+        }
+        boolean negativeCycle = !stack.isEmpty();
+        while (!stack.isEmpty()) {
+            List<Graph.Edge> out = g.adj.get(stack.pop());
+            if (out == null) continue;
+            for (Graph.Edge e : out) {
+                if (view != null && !view.allows(e)) continue;
+                if (dist.get(e.to) != Double.NEGATIVE_INFINITY) {
+                    dist.put(e.to, Double.NEGATIVE_INFINITY);
+                    stack.push(e.to);
+                }
+            }
+        }
+
         long end = System.currentTimeMillis();
-        return new Result(dist, end - start);
+        return new Result(dist, end - start, negativeCycle);
     }
 }
@@ -13,6 +13,11 @@ public class Dijkstra {
     }
 
     public static Result run(Graph g, String src) {
+        return run(g, src, null);
+    }
+
+    // Only follows edges the view allows; a null view allows every edge
+    public static Result run(Graph g, String src, GraphView view) {
         long start = System.currentTimeMillis();
 
         Map<String, Double> dist = new HashMap<>();
@@ -27,6 +32,7 @@ public class Dijkstra {
             if (!g.adj.containsKey(u)) continue;
 
             for (Graph.Edge e : g.adj.get(u)) {
+                if (view != null && !view.allows(e)) continue;
                 double nd = dist.get(u) + e.weightNonNegative;
                 if (nd < dist.get(e.to)) {
                     dist.put(e.to, nd);
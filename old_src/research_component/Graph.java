@@ -15,6 +15,7 @@ public class Graph {
         String requiredByCompany;
         double importanceScore;
         boolean isCore;
+        int id; // position in load order, used by GraphView bitmasks
 
         public Edge(String from, String to, String relationType, double weightNonNegative,
                     double combinedDifficulty, String fromName, String toName,
@@ -34,8 +35,39 @@ public class Graph {
 
     Map<String, List<Edge>> adj = new HashMap<>();
     Set<String> nodes = new HashSet<>();
+    int edgeCount;
+    GraphIndex index;
+    GraphView.Masks masks;
+
+    public GraphIndex index() {
+        if (index == null) index = GraphIndex.build(this);
+        return index;
+    }
+
+    public GraphView.Masks masks() {
+        if (masks == null) masks = GraphView.Masks.build(this);
+        return masks;
+    }
+
+    // Same nodes with every edge flipped, so a single-source run from t gives each node's distance to t
+    public Graph reversed() {
+        Graph r = new Graph();
+        r.nodes.addAll(nodes);
+        for (List<Edge> out : adj.values()) {
+            for (Edge e : out) {
+                Edge f = new Edge(e.to, e.from, e.relationType, e.weightNonNegative, e.combinedDifficulty,
+                        e.toName, e.fromName, e.requiredByCompany, e.importanceScore, e.isCore);
+                f.id = e.id;
+                r.adj.computeIfAbsent(f.from, k -> new ArrayList<>()).add(f);
+            }
+        }
+        r.edgeCount = edgeCount;
+        return r;
+    }
 
     public void loadCSV(String filePath) throws Exception {
+        index = null;
+        masks = null;
         BufferedReader br = new BufferedReader(new FileReader(filePath));
         String line;
         br.readLine(); // header
@@ -62,6 +94,7 @@ public class Graph {
 
             Edge e = new Edge(from, to, relationType, weightNonNegative, combinedDifficulty,
                     fromName, toName, requiredByCompany, importanceScore, isCore);
+            e.id = edgeCount++;
 
             adj.computeIfAbsent(from, k -> new ArrayList<>()).add(e);
             nodes.add(from);
@@ -0,0 +1,76 @@
+import java.util.*;
+
+public class GraphIndex {
+
+    // Compact (CSR) copy of Graph.adj: node u's outgoing arcs are offsets[u] .. offsets[u + 1] - 1
+    String[] ids;
+    Map<String, Integer> indexOf;
+    int[] offsets;
+    int[] targets;
+    int[] sources;
+    Graph.Edge[] edges;
+    double[] weightNonNegative;
+    double[] combinedDifficulty;
+
+    public GraphIndex(String[] ids, int[] offsets, int[] targets, Graph.Edge[] edges) {
+        this.ids = ids;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.edges = edges;
+
+        this.indexOf = new HashMap<>(ids.length * 2);
+        for (int i = 0; i < ids.length; i++) indexOf.put(ids[i], i);
+
+        this.sources = new int[targets.length];
+        for (int u = 0; u < ids.length; u++) {
+            for (int a = offsets[u]; a < offsets[u + 1]; a++) sources[a] = u;
+        }
+
+        this.weightNonNegative = new double[edges.length];
+        this.combinedDifficulty = new double[edges.length];
+        for (int a = 0; a < edges.length; a++) {
+            weightNonNegative[a] = edges[a].weightNonNegative;
+            combinedDifficulty[a] = edges[a].combinedDifficulty;
+        }
+    }
+
+    public static GraphIndex build(Graph g) {
+        String[] ids = g.nodes.toArray(new String[0]);
+        Map<String, Integer> indexOf = new HashMap<>(ids.length * 2);
+        for (int i = 0; i < ids.length; i++) indexOf.put(ids[i], i);
+
+        int[] offsets = new int[ids.length + 1];
+        for (int u = 0; u < ids.length; u++) {
+            List<Graph.Edge> out = g.adj.get(ids[u]);
+            offsets[u + 1] = offsets[u] + (out == null ? 0 : out.size());
+        }
+
+        int[] targets = new int[offsets[ids.length]];
+        Graph.Edge[] edges = new Graph.Edge[offsets[ids.length]];
+        for (int u = 0; u < ids.length; u++) {
+            List<Graph.Edge> out = g.adj.get(ids[u]);
+            if (out == null) continue;
+            int a = offsets[u];
+            for (Graph.Edge e : out) {
+                targets[a] = indexOf.get(e.to);
+                edges[a] = e;
+                a++;
+            }
+        }
+
+        return new GraphIndex(ids, offsets, targets, edges);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public int arcCount() {
+        return targets.length;
+    }
+
+    public int index(String id) {
+        Integer i = indexOf.get(id);
+        return i == null ? -1 : i;
+    }
+}
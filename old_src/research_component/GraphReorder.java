@@ -0,0 +1,155 @@
+import java.util.*;
+
+public class GraphReorder {
+
+    public enum Strategy { BFS, RCM, DEGREE }
+
+    public static class Result {
+        Strategy strategy;
+        int[] newToOld;   // new node index -> index before reordering
+        int[] oldToNew;
+        String[] ids;     // new node index -> course id
+        long timeMs;
+
+        public Result(Strategy strategy, int[] newToOld, int[] oldToNew, String[] ids, long timeMs) {
+            this.strategy = strategy;
+            this.newToOld = newToOld;
+            this.oldToNew = oldToNew;
+            this.ids = ids;
+            this.timeMs = timeMs;
+        }
+    }
+
+    // Run once right after loadCSV. Rebuilds g.nodes and g.adj (insertion-ordered) in the new node
+    // order, re-allocates the edges in that order so they sit next to each other on the heap,
+    // renumbers edge ids to match, and rebuilds the cached GraphIndex. Distances are unaffected.
+    public static Result apply(Graph g, Strategy strategy) {
+        long start = System.currentTimeMillis();
+
+        GraphIndex idx = g.index();
+        int n = idx.size();
+        int[] newToOld = order(idx, strategy);
+        int[] oldToNew = new int[n];
+        for (int i = 0; i < n; i++) oldToNew[newToOld[i]] = i;
+
+        Map<String, List<Graph.Edge>> adj = new LinkedHashMap<>(n * 2);
+        Set<String> nodes = new LinkedHashSet<>(n * 2);
+        int edgeId = 0;
+        long[] arcs = new long[0];
+
+        for (int i = 0; i < n; i++) {
+            int u = newToOld[i];
+            nodes.add(idx.ids[u]);
+
+            int degree = idx.offsets[u + 1] - idx.offsets[u];
+            if (!g.adj.containsKey(idx.ids[u])) continue;
+            // Arcs sorted by their target's new index, packed as (target << 32 | arc)
+            if (arcs.length < degree) arcs = new long[degree];
+            for (int k = 0; k < degree; k++) {
+                int a = idx.offsets[u] + k;
+                arcs[k] = ((long) oldToNew[idx.targets[a]] << 32) | a;
+            }
+            Arrays.sort(arcs, 0, degree);
+
+            List<Graph.Edge> out = new ArrayList<>(degree);
+            for (int k = 0; k < degree; k++) {
+                Graph.Edge e = idx.edges[(int) arcs[k]];
+                Graph.Edge copy = new Graph.Edge(e.from, e.to, e.relationType, e.weightNonNegative,
+                        e.combinedDifficulty, e.fromName, e.toName, e.requiredByCompany, e.importanceScore, e.isCore);
+                copy.id = edgeId++;
+                out.add(copy);
+            }
+            adj.put(idx.ids[u], out);
+        }
+
+        g.adj = adj;
+        g.nodes = nodes;
+        g.edgeCount = edgeId;
+        g.masks = null;
+        g.index = GraphIndex.build(g);
+
+        long end = System.currentTimeMillis();
+        return new Result(strategy, newToOld, oldToNew, g.index.ids, end - start);
+    }
+
+    // Returns newToOld. BFS and RCM treat arcs as undirected so prerequisite chains stay contiguous.
+    static int[] order(GraphIndex idx, Strategy strategy) {
+        int n = idx.size();
+        int[][] und = undirected(idx);
+        int[] degree = new int[n];
+        for (int u = 0; u < n; u++) degree[u] = und[u].length;
+
+        if (strategy == Strategy.DEGREE) {
+            Integer[] byDegree = new Integer[n];
+            for (int i = 0; i < n; i++) byDegree[i] = i;
+            Arrays.sort(byDegree, (a, b) -> degree[b] != degree[a] ? degree[b] - degree[a] : a - b);
+            int[] order = new int[n];
+            for (int i = 0; i < n; i++) order[i] = byDegree[i];
+            return order;
+        }
+
+        // Each component starts from its lowest-degree node, the usual Cuthill-McKee peripheral guess
+        Integer[] starts = new Integer[n];
+        for (int i = 0; i < n; i++) starts[i] = i;
+        Arrays.sort(starts, (a, b) -> degree[a] != degree[b] ? degree[a] - degree[b] : a - b);
+
+        boolean sortNeighbours = strategy == Strategy.RCM;
+        int[] order = new int[n];
+        boolean[] seen = new boolean[n];
+        int tail = 0;
+        for (int s : starts) {
+            if (seen[s]) continue;
+            seen[s] = true;
+            int head = tail;
+            order[tail++] = s;
+            while (head < tail) {
+                int u = order[head++];
+                int first = tail;
+                for (int v : und[u]) {
+                    if (!seen[v]) {
+                        seen[v] = true;
+                        order[tail++] = v;
+                    }
+                }
+                if (sortNeighbours) sortByDegree(order, first, tail, degree);
+            }
+        }
+
+        if (strategy == Strategy.RCM) {
+            for (int i = 0, j = n - 1; i < j; i++, j--) {
+                int tmp = order[i];
+                order[i] = order[j];
+                order[j] = tmp;
+            }
+        }
+        return order;
+    }
+
+    private static int[][] undirected(GraphIndex idx) {
+        int n = idx.size();
+        int[] count = new int[n];
+        for (int a = 0; a < idx.arcCount(); a++) {
+            count[idx.sources[a]]++;
+            count[idx.targets[a]]++;
+        }
+        int[][] und = new int[n][];
+        for (int u = 0; u < n; u++) und[u] = new int[count[u]];
+        Arrays.fill(count, 0);
+        for (int a = 0; a < idx.arcCount(); a++) {
+            int u = idx.sources[a];
+            int v = idx.targets[a];
+            und[u][count[u]++] = v;
+            und[v][count[v]++] = u;
+        }
+        return und;
+    }
+
+    // Sorts one node's newly discovered neighbours by (degree, index) packed into longs
+    private static void sortByDegree(int[] order, int from, int to, int[] degree) {
+        if (to - from < 2) return;
+        long[] keys = new long[to - from];
+        for (int i = from; i < to; i++) keys[i - from] = ((long) degree[order[i]] << 32) | order[i];
+        Arrays.sort(keys);
+        for (int i = from; i < to; i++) order[i] = (int) keys[i - from];
+    }
+}
@@ -0,0 +1,84 @@
+import java.util.*;
+
+public class GraphView {
+
+    // One bit per edge id for every filterable attribute, computed once per loaded graph
+    public static class Masks {
+        int edgeCount;
+        long[] all;
+        long[] core;
+        Map<String, long[]> byRelationType = new HashMap<>();
+        Map<String, long[]> byCompany = new HashMap<>();
+
+        public static Masks build(Graph g) {
+            Masks m = new Masks();
+            m.edgeCount = g.edgeCount;
+            int words = (g.edgeCount + 63) >>> 6;
+            m.all = new long[words];
+            m.core = new long[words];
+
+            for (List<Graph.Edge> out : g.adj.values()) {
+                for (Graph.Edge e : out) {
+                    set(m.all, e.id);
+                    if (e.isCore) set(m.core, e.id);
+                    set(m.byRelationType.computeIfAbsent(e.relationType, k -> new long[words]), e.id);
+                    set(m.byCompany.computeIfAbsent(e.requiredByCompany, k -> new long[words]), e.id);
+                }
+            }
+            return m;
+        }
+
+        private static void set(long[] bits, int id) {
+            bits[id >>> 6] |= 1L << id;
+        }
+    }
+
+    // A view is only a bitmask of allowed edge ids; the engines walk the same Graph.adj and skip the rest
+    Masks masks;
+    long[] allowed;
+
+    private GraphView(Masks masks, long[] allowed) {
+        this.masks = masks;
+        this.allowed = allowed;
+    }
+
+    public static GraphView all(Graph g) {
+        Masks m = g.masks();
+        return new GraphView(m, m.all.clone());
+    }
+
+    public GraphView coreOnly() {
+        return and(masks.core);
+    }
+
+    public GraphView relationTypes(String... types) {
+        long[] union = new long[allowed.length];
+        for (String type : types) {
+            long[] bits = masks.byRelationType.get(type);
+            if (bits == null) continue;
+            for (int i = 0; i < union.length; i++) union[i] |= bits[i];
+        }
+        return and(union);
+    }
+
+    public GraphView company(String company) {
+        long[] bits = masks.byCompany.get(company);
+        return and(bits == null ? new long[allowed.length] : bits);
+    }
+
+    public boolean allows(Graph.Edge e) {
+        return (allowed[e.id >>> 6] & (1L << e.id)) != 0;
+    }
+
+    public int edgeCount() {
+        int c = 0;
+        for (long word : allowed) c += Long.bitCount(word);
+        return c;
+    }
+
+    private GraphView and(long[] bits) {
+        long[] out = new long[allowed.length];
+        for (int i = 0; i < out.length; i++) out[i] = allowed[i] & bits[i];
+        return new GraphView(masks, out);
+    }
+}
@@ -0,0 +1,166 @@
+import java.util.*;
+
+public class HopConstrainedPath {
+
+    public static class Result {
+        List<String> path;          // empty when dst cannot be reached within maxHops
+        double combinedDifficulty;
+        double weightNonNegative;
+        int hops;
+        int labelsCreated;
+        long timeMs;
+
+        public Result(List<String> path, double combinedDifficulty, double weightNonNegative, int hops,
+                      int labelsCreated, long timeMs) {
+            this.path = path;
+            this.combinedDifficulty = combinedDifficulty;
+            this.weightNonNegative = weightNonNegative;
+            this.hops = hops;
+            this.labelsCreated = labelsCreated;
+            this.timeMs = timeMs;
+        }
+    }
+
+    // Easiest (minimum combinedDifficulty) src -> dst path using at most maxHops edges.
+    // Label-setting search: a label is (node, hops, cost), popped in cost order. A label is dominated
+    // when its node was already settled with no more hops, since that label also cost no more.
+    // Labels whose hops plus the BFS hop distance to dst exceed maxHops are never created.
+    // combinedDifficulty must be non-negative: a cheaper label could otherwise be found after its node
+    // was settled, so a negative edge throws IllegalArgumentException.
+    public static Result run(Graph g, String src, String dst, int maxHops) {
+        long start = System.currentTimeMillis();
+
+        GraphIndex idx = g.index();
+        for (int a = 0; a < idx.arcCount(); a++) {
+            if (idx.combinedDifficulty[a] < 0) {
+                Graph.Edge e = idx.edges[a];
+                throw new IllegalArgumentException("HopConstrainedPath needs non-negative combinedDifficulty, but "
+                        + e.from + " -> " + e.to + " has " + e.combinedDifficulty);
+            }
+        }
+        int s = idx.index(src);
+        int t = idx.index(dst);
+        int n = idx.size();
+        if (s < 0 || t < 0 || maxHops < 0) {
+            return new Result(new ArrayList<>(), Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, -1, 0,
+                    System.currentTimeMillis() - start);
+        }
+
+        int[] hopsToTarget = reverseHops(idx, t);
+
+        // Fewest hops among the settled labels of each node; any later label needs strictly fewer
+        int[] settledHops = new int[n];
+        Arrays.fill(settledHops, Integer.MAX_VALUE);
+
+        LabelPool pool = new LabelPool(Math.max(16, n));
+        MinHeap heap = new MinHeap(n);
+        int found = -1;
+
+        if (hopsToTarget[s] <= maxHops) heap.push(0.0, pool.add(s, 0, 0.0, -1, -1));
+
+        while (!heap.isEmpty()) {
+            int l = heap.pop();
+            int u = pool.node[l];
+            int h = pool.hops[l];
+            if (h >= settledHops[u]) continue;
+            settledHops[u] = h;
+
+            if (u == t) {
+                found = l;
+                break;
+            }
+
+            double c = pool.cost[l];
+            for (int a = idx.offsets[u]; a < idx.offsets[u + 1]; a++) {
+                int v = idx.targets[a];
+                int nh = h + 1;
+                if (nh >= settledHops[v]) continue;
+                if (hopsToTarget[v] == Integer.MAX_VALUE || nh + hopsToTarget[v] > maxHops) continue;
+                double nc = c + idx.combinedDifficulty[a];
+                heap.push(nc, pool.add(v, nh, nc, l, a));
+            }
+        }
+
+        List<String> path = new ArrayList<>();
+        double difficulty = Double.POSITIVE_INFINITY;
+        double weight = Double.POSITIVE_INFINITY;
+        int hops = -1;
+        if (found >= 0) {
+            difficulty = pool.cost[found];
+            hops = pool.hops[found];
+            weight = 0;
+            for (int l = found; l >= 0; l = pool.parent[l]) {
+                path.add(idx.ids[pool.node[l]]);
+                if (pool.arc[l] >= 0) weight += idx.weightNonNegative[pool.arc[l]];
+            }
+            Collections.reverse(path);
+        }
+
+        long end = System.currentTimeMillis();
+        return new Result(path, difficulty, weight, hops, pool.size, end - start);
+    }
+
+    // Labels live in parallel primitive arrays; a label is just its index
+    private static class LabelPool {
+        int[] node;
+        int[] hops;
+        double[] cost;
+        int[] parent;
+        int[] arc;
+        int size;
+
+        LabelPool(int capacity) {
+            node = new int[capacity];
+            hops = new int[capacity];
+            cost = new double[capacity];
+            parent = new int[capacity];
+            arc = new int[capacity];
+        }
+
+        int add(int v, int h, double c, int parentLabel, int viaArc) {
+            if (size == node.length) {
+                int cap = size * 2;
+                node = Arrays.copyOf(node, cap);
+                hops = Arrays.copyOf(hops, cap);
+                cost = Arrays.copyOf(cost, cap);
+                parent = Arrays.copyOf(parent, cap);
+                arc = Arrays.copyOf(arc, cap);
+            }
+            node[size] = v;
+            hops[size] = h;
+            cost[size] = c;
+            parent[size] = parentLabel;
+            arc[size] = viaArc;
+            return size++;
+        }
+    }
+
+    // BFS over reversed arcs: fewest edges from each node to t
+    private static int[] reverseHops(GraphIndex idx, int t) {
+        int n = idx.size();
+        int[] revOffsets = new int[n + 1];
+        for (int a = 0; a < idx.arcCount(); a++) revOffsets[idx.targets[a] + 1]++;
+        for (int v = 0; v < n; v++) revOffsets[v + 1] += revOffsets[v];
+        int[] revSources = new int[idx.arcCount()];
+        int[] fill = Arrays.copyOf(revOffsets, n);
+        for (int a = 0; a < idx.arcCount(); a++) revSources[fill[idx.targets[a]]++] = idx.sources[a];
+
+        int[] dist = new int[n];
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        int[] queue = new int[n];
+        int head = 0, tail = 0;
+        dist[t] = 0;
+        queue[tail++] = t;
+        while (head < tail) {
+            int v = queue[head++];
+            for (int r = revOffsets[v]; r < revOffsets[v + 1]; r++) {
+                int u = revSources[r];
+                if (dist[u] == Integer.MAX_VALUE) {
+                    dist[u] = dist[v] + 1;
+                    queue[tail++] = u;
+                }
+            }
+        }
+        return dist;
+    }
+}
@@ -0,0 +1,306 @@
+import java.util.*;
+
+public class KShortestPaths {
+
+    public static class Path {
+        List<String> nodes;
+        int hops;
+        double weightNonNegative;
+        double combinedDifficulty;
+
+        public Path(List<String> nodes, int hops, double weightNonNegative, double combinedDifficulty) {
+            this.nodes = nodes;
+            this.hops = hops;
+            this.weightNonNegative = weightNonNegative;
+            this.combinedDifficulty = combinedDifficulty;
+        }
+
+        @Override
+        public String toString() {
+            return String.join(" → ", nodes) + String.format(" (hops %d, cost %.1f, difficulty %.1f)",
+                    hops, weightNonNegative, combinedDifficulty);
+        }
+    }
+
+    public static class Result {
+        List<Path> paths;
+        long timeMs;
+
+        public Result(List<Path> paths, long timeMs) {
+            this.paths = paths;
+            this.timeMs = timeMs;
+        }
+    }
+
+    // Internal candidate: the arc sequence of a path and its cost under the ranking metric
+    private static class Candidate {
+        int[] arcs;
+        double cost;
+
+        Candidate(int[] arcs, double cost) {
+            this.arcs = arcs;
+            this.cost = cost;
+        }
+    }
+
+    // Up to k loopless src -> dst paths in increasing weightNonNegative order
+    public static Result run(Graph g, String src, String dst, int k) {
+        return run(g, src, dst, k, false);
+    }
+
+    // Yen's algorithm. One reverse Dijkstra from dst gives the shortest-path tree towards dst and the
+    // exact remaining distance h[v]; every spur search reuses it, either by taking the tree path
+    // directly when none of its nodes or first arc are banned, or as the A* heuristic otherwise.
+    // Spur searches also stop as soon as they cannot beat the candidates already queued.
+    // The ranking metric must be non-negative, or the A* spur searches return wrong paths, so a
+    // negative edge cost throws IllegalArgumentException.
+    public static Result run(Graph g, String src, String dst, int k, boolean byDifficulty) {
+        long start = System.currentTimeMillis();
+
+        GraphIndex idx = g.index();
+        int s = idx.index(src);
+        int t = idx.index(dst);
+        List<Path> paths = new ArrayList<>();
+        if (s < 0 || t < 0 || k <= 0) {
+            return new Result(paths, System.currentTimeMillis() - start);
+        }
+
+        double[] cost = byDifficulty ? idx.combinedDifficulty : idx.weightNonNegative;
+        for (int a = 0; a < idx.arcCount(); a++) {
+            if (cost[a] < 0) {
+                Graph.Edge e = idx.edges[a];
+                throw new IllegalArgumentException("KShortestPaths needs non-negative "
+                        + (byDifficulty ? "combinedDifficulty" : "weightNonNegative") + ", but "
+                        + e.from + " -> " + e.to + " has " + cost[a]);
+            }
+        }
+        int n = idx.size();
+
+        double[] h = new double[n];
+        int[] treeArc = new int[n];
+        reverseTree(idx, cost, t, h, treeArc);
+        if (h[s] == Double.POSITIVE_INFINITY) {
+            return new Result(paths, System.currentTimeMillis() - start);
+        }
+
+        List<Candidate> accepted = new ArrayList<>();
+        List<Candidate> candidates = new ArrayList<>(); // sorted by cost, trimmed to what can still be used
+        Set<String> seen = new HashSet<>();
+
+        Candidate first = new Candidate(treePath(idx, treeArc, s, t), h[s]);
+        accepted.add(first);
+        seen.add(Arrays.toString(first.arcs));
+
+        SpurSearch search = new SpurSearch(idx, cost, h);
+        boolean[] bannedNode = new boolean[n];
+        Set<Integer> bannedArcs = new HashSet<>();
+
+        while (accepted.size() < k) {
+            Candidate prev = accepted.get(accepted.size() - 1);
+            int need = k - accepted.size();
+
+            double rootCost = 0;
+            int spur = s;
+            for (int i = 0; i < prev.arcs.length; i++) {
+                // Root = prev.arcs[0 .. i-1]; ban the next arc of every accepted path sharing that root
+                bannedArcs.clear();
+                for (Candidate p : accepted) {
+                    if (p.arcs.length > i && sameRoot(p.arcs, prev.arcs, i)) bannedArcs.add(p.arcs[i]);
+                }
+
+                double bound = candidates.size() >= need ? candidates.get(need - 1).cost : Double.POSITIVE_INFINITY;
+                int[] spurArcs = search.run(spur, t, rootCost, bound, bannedNode, bannedArcs, treeArc);
+
+                if (spurArcs != null) {
+                    int[] arcs = new int[i + spurArcs.length];
+                    System.arraycopy(prev.arcs, 0, arcs, 0, i);
+                    System.arraycopy(spurArcs, 0, arcs, i, spurArcs.length);
+                    if (seen.add(Arrays.toString(arcs))) {
+                        insertSorted(candidates, new Candidate(arcs, pathCost(cost, arcs)), need);
+                    }
+                }
+
+                bannedNode[spur] = true;
+                rootCost += cost[prev.arcs[i]];
+                spur = idx.targets[prev.arcs[i]];
+            }
+            Arrays.fill(bannedNode, false);
+
+            if (candidates.isEmpty()) break;
+            accepted.add(candidates.remove(0));
+        }
+
+        for (Candidate c : accepted) paths.add(toPath(idx, s, c.arcs));
+
+        long end = System.currentTimeMillis();
+        return new Result(paths, end - start);
+    }
+
+    // Reusable A* scratch space; stamp[] marks which entries belong to the current search
+    private static class SpurSearch {
+        GraphIndex idx;
+        double[] cost;
+        double[] h;
+        double[] dist;
+        int[] parentArc;
+        int[] stamp;
+        boolean[] closed;
+        int round;
+        MinHeap heap;
+
+        SpurSearch(GraphIndex idx, double[] cost, double[] h) {
+            int n = idx.size();
+            this.idx = idx;
+            this.cost = cost;
+            this.h = h;
+            this.dist = new double[n];
+            this.parentArc = new int[n];
+            this.stamp = new int[n];
+            this.closed = new boolean[n];
+            this.heap = new MinHeap(64);
+        }
+
+        int[] run(int spur, int t, double rootCost, double bound, boolean[] bannedNode, Set<Integer> bannedArcs,
+                  int[] treeArc) {
+            int[] shortcut = treeShortcut(spur, t, bannedNode, bannedArcs, treeArc);
+            if (shortcut != null) return shortcut;
+
+            round++;
+            heap.clear();
+            touch(spur);
+            dist[spur] = 0;
+            heap.push(h[spur], spur);
+
+            while (!heap.isEmpty()) {
+                if (rootCost + heap.peekKey() > bound) return null;
+                int u = heap.pop();
+                if (closed[u]) continue;
+                closed[u] = true;
+                if (u == t) return unwind(spur, t);
+
+                for (int a = idx.offsets[u]; a < idx.offsets[u + 1]; a++) {
+                    int v = idx.targets[a];
+                    if (bannedNode[v] || (u == spur && bannedArcs.contains(a))) continue;
+                    if (h[v] == Double.POSITIVE_INFINITY) continue;
+                    touch(v);
+                    if (closed[v]) continue;
+                    double nd = dist[u] + cost[a];
+                    if (nd < dist[v]) {
+                        dist[v] = nd;
+                        parentArc[v] = a;
+                        heap.push(nd + h[v], v);
+                    }
+                }
+            }
+            return null;
+        }
+
+        private void touch(int v) {
+            if (stamp[v] != round) {
+                stamp[v] = round;
+                dist[v] = Double.POSITIVE_INFINITY;
+                closed[v] = false;
+            }
+        }
+
+        // The tree path from spur already has length h[spur], a lower bound, so it is optimal whenever allowed
+        private int[] treeShortcut(int spur, int t, boolean[] bannedNode, Set<Integer> bannedArcs, int[] treeArc) {
+            if (treeArc[spur] >= 0 && bannedArcs.contains(treeArc[spur])) return null;
+            int len = 0;
+            for (int v = spur; v != t; v = idx.targets[treeArc[v]]) {
+                if (treeArc[v] < 0) return null;
+                if (v != spur && bannedNode[v]) return null;
+                len++;
+            }
+            return treePath(idx, treeArc, spur, t, len);
+        }
+
+        private int[] unwind(int spur, int t) {
+            int len = 0;
+            for (int v = t; v != spur; v = idx.sources[parentArc[v]]) len++;
+            int[] arcs = new int[len];
+            for (int v = t; v != spur; v = idx.sources[parentArc[v]]) arcs[--len] = parentArc[v];
+            return arcs;
+        }
+    }
+
+    // Dijkstra on reversed arcs from t: h[v] = distance v -> t, treeArc[v] = first arc of that path
+    private static void reverseTree(GraphIndex idx, double[] cost, int t, double[] h, int[] treeArc) {
+        int n = idx.size();
+        int[] revOffsets = new int[n + 1];
+        for (int a = 0; a < idx.arcCount(); a++) revOffsets[idx.targets[a] + 1]++;
+        for (int v = 0; v < n; v++) revOffsets[v + 1] += revOffsets[v];
+        int[] revArcs = new int[idx.arcCount()];
+        int[] fill = Arrays.copyOf(revOffsets, n);
+        for (int a = 0; a < idx.arcCount(); a++) revArcs[fill[idx.targets[a]]++] = a;
+
+        Arrays.fill(h, Double.POSITIVE_INFINITY);
+        Arrays.fill(treeArc, -1);
+        boolean[] done = new boolean[n];
+        MinHeap heap = new MinHeap(n);
+        h[t] = 0;
+        heap.push(0, t);
+
+        while (!heap.isEmpty()) {
+            int v = heap.pop();
+            if (done[v]) continue;
+            done[v] = true;
+            for (int r = revOffsets[v]; r < revOffsets[v + 1]; r++) {
+                int u = idx.sources[revArcs[r]];
+                double nd = h[v] + cost[revArcs[r]];
+                if (nd < h[u]) {
+                    h[u] = nd;
+                    treeArc[u] = revArcs[r];
+                    heap.push(nd, u);
+                }
+            }
+        }
+    }
+
+    private static int[] treePath(GraphIndex idx, int[] treeArc, int from, int t) {
+        int len = 0;
+        for (int v = from; v != t; v = idx.targets[treeArc[v]]) len++;
+        return treePath(idx, treeArc, from, t, len);
+    }
+
+    private static int[] treePath(GraphIndex idx, int[] treeArc, int from, int t, int len) {
+        int[] arcs = new int[len];
+        int i = 0;
+        for (int v = from; v != t; v = idx.targets[treeArc[v]]) arcs[i++] = treeArc[v];
+        return arcs;
+    }
+
+    private static boolean sameRoot(int[] a, int[] b, int len) {
+        for (int i = 0; i < len; i++) {
+            if (a[i] != b[i]) return false;
+        }
+        return true;
+    }
+
+    private static double pathCost(double[] cost, int[] arcs) {
+        double c = 0;
+        for (int a : arcs) c += cost[a];
+        return c;
+    }
+
+    private static void insertSorted(List<Candidate> candidates, Candidate c, int keep) {
+        int pos = candidates.size();
+        while (pos > 0 && candidates.get(pos - 1).cost > c.cost) pos--;
+        if (pos >= keep) return;
+        candidates.add(pos, c);
+        while (candidates.size() > keep) candidates.remove(candidates.size() - 1);
+    }
+
+    private static Path toPath(GraphIndex idx, int s, int[] arcs) {
+        List<String> nodes = new ArrayList<>(arcs.length + 1);
+        nodes.add(idx.ids[s]);
+        double weight = 0;
+        double difficulty = 0;
+        for (int a : arcs) {
+            nodes.add(idx.ids[idx.targets[a]]);
+            weight += idx.weightNonNegative[a];
+            difficulty += idx.combinedDifficulty[a];
+        }
+        return new Path(nodes, arcs.length, weight, difficulty);
+    }
+}
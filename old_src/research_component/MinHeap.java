@@ -0,0 +1,67 @@
+import java.util.Arrays;
+
+public class MinHeap {
+
+    // Binary heap of (double key, int value) pairs in parallel arrays, so pushes never box.
+    // Stale entries are allowed: callers skip values they have already settled.
+    double[] keys;
+    int[] values;
+    int size;
+
+    public MinHeap(int capacity) {
+        keys = new double[Math.max(capacity, 16)];
+        values = new int[keys.length];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public double peekKey() {
+        return keys[0];
+    }
+
+    public void push(double key, int value) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) break;
+            keys[i] = keys[parent];
+            values[i] = values[parent];
+            i = parent;
+        }
+        keys[i] = key;
+        values[i] = value;
+    }
+
+    // Removes the minimum entry and returns its value
+    public int pop() {
+        int top = values[0];
+        size--;
+        if (size > 0) {
+            double key = keys[size];
+            int value = values[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+                if (keys[child] >= key) break;
+                keys[i] = keys[child];
+                values[i] = values[child];
+                i = child;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+        return top;
+    }
+}
@@ -0,0 +1,101 @@
+import java.util.*;
+import java.util.stream.IntStream;
+
+public class MultiSourceBFS {
+
+    public static class Result {
+        Map<String, Integer> sourceIndex;
+        GraphIndex index;
+        int[][] hops; // hops[source][node], Integer.MAX_VALUE when unreachable
+        long timeMs;
+
+        public Result(Map<String, Integer> sourceIndex, GraphIndex index, int[][] hops, long timeMs) {
+            this.sourceIndex = sourceIndex;
+            this.index = index;
+            this.hops = hops;
+            this.timeMs = timeMs;
+        }
+
+        public int hops(String src, String dst) {
+            Integer s = sourceIndex.get(src);
+            int d = index.index(dst);
+            if (s == null || d < 0) return Integer.MAX_VALUE;
+            return hops[s][d];
+        }
+    }
+
+    // Same hop counts as calling SSSP.run once per source, but 64 sources share every edge scan:
+    // bit b of frontier[v] / visited[v] belongs to the b-th source of the current batch.
+    public static Result run(Graph g, List<String> sources) {
+        long start = System.currentTimeMillis();
+
+        GraphIndex idx = g.index();
+        int n = idx.size();
+
+        Map<String, Integer> sourceIndex = new HashMap<>(sources.size() * 2);
+        int[] srcNodes = new int[sources.size()];
+        for (int i = 0; i < sources.size(); i++) {
+            sourceIndex.put(sources.get(i), i);
+            srcNodes[i] = idx.index(sources.get(i));
+        }
+
+        int[][] hops = new int[sources.size()][];
+        for (int i = 0; i < hops.length; i++) {
+            hops[i] = new int[n];
+            Arrays.fill(hops[i], Integer.MAX_VALUE);
+        }
+
+        int batches = (sources.size() + 63) / 64;
+        IntStream.range(0, batches).parallel().forEach(b -> runBatch(idx, srcNodes, b * 64, hops));
+
+        long end = System.currentTimeMillis();
+        return new Result(sourceIndex, idx, hops, end - start);
+    }
+
+    private static void runBatch(GraphIndex idx, int[] srcNodes, int first, int[][] hops) {
+        int n = idx.size();
+        int width = Math.min(64, srcNodes.length - first);
+
+        long[] visited = new long[n];
+        long[] frontier = new long[n];
+        long[] next = new long[n];
+
+        for (int b = 0; b < width; b++) {
+            int s = srcNodes[first + b];
+            if (s < 0) continue;
+            visited[s] |= 1L << b;
+            frontier[s] |= 1L << b;
+            hops[first + b][s] = 0;
+        }
+
+        int[] offsets = idx.offsets;
+        int[] targets = idx.targets;
+
+        for (int level = 1; ; level++) {
+            for (int u = 0; u < n; u++) {
+                long f = frontier[u];
+                if (f == 0) continue;
+                for (int a = offsets[u]; a < offsets[u + 1]; a++) {
+                    next[targets[a]] |= f;
+                }
+            }
+
+            boolean active = false;
+            for (int v = 0; v < n; v++) {
+                long fresh = next[v] & ~visited[v];
+                next[v] = 0;
+                frontier[v] = fresh;
+                if (fresh == 0) continue;
+
+                active = true;
+                visited[v] |= fresh;
+                while (fresh != 0) {
+                    int b = Long.numberOfTrailingZeros(fresh);
+                    hops[first + b][v] = level;
+                    fresh &= fresh - 1;
+                }
+            }
+            if (!active) break;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+public class ParallelBellmanFord {
+
+    // Arcs per partition never drop below this, so tiny graphs do not pay for task overhead
+    static final int MIN_PARTITION = 4096;
+
+    // Same distances as BellmanFord.run, with each pass split over partitions of the flat arc array.
+    // Distances live in an AtomicLongArray as order-preserving long encodings of the doubles, so a
+    // relaxation is a compare-and-set minimum. Passes stop as soon as a whole pass changes nothing.
+    // A negative cycle keeps every pass changing, so all V-1 run; the extra detection pass then marks
+    // what the cycle reaches as -Infinity exactly as BellmanFord.run does, which makes the result
+    // independent of the order the CAS loops happened to win in.
+    public static BellmanFord.Result run(Graph g, String src) {
+        long start = System.currentTimeMillis();
+
+        GraphIndex idx = g.index();
+        int n = idx.size();
+        int m = idx.arcCount();
+        int[] sources = idx.sources;
+        int[] targets = idx.targets;
+        double[] w = idx.combinedDifficulty;
+
+        AtomicLongArray dist = new AtomicLongArray(n);
+        long inf = encode(Double.POSITIVE_INFINITY);
+        for (int i = 0; i < n; i++) dist.set(i, inf);
+        int s = idx.index(src);
+        if (s >= 0) dist.set(s, encode(0.0));
+
+        int parts = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() * 4, m / MIN_PARTITION));
+        int chunk = (m + parts - 1) / Math.max(1, parts);
+        AtomicBoolean changed = new AtomicBoolean();
+
+        for (int pass = 0; pass < n - 1; pass++) {
+            changed.set(false);
+            IntStream.range(0, parts).parallel().forEach(p -> {
+                boolean local = false;
+                int end = Math.min(m, (p + 1) * chunk);
+                for (int a = p * chunk; a < end; a++) {
+                    long du = dist.get(sources[a]);
+                    if (du == inf) continue;
+                    long nd = encode(decode(du) + w[a]);
+                    int v = targets[a];
+                    long cur = dist.get(v);
+                    while (nd < cur) {
+                        if (dist.compareAndSet(v, cur, nd)) {
+                            local = true;
+                            break;
+                        }
+                        cur = dist.get(v);
+                    }
+                }
+                if (local) changed.set(true);
+            });
+            if (!changed.get()) break;
+        }
+
+        double[] d = new double[n];
+        for (int i = 0; i < n; i++) d[i] = decode(dist.get(i));
+
+        // Extra pass, as in BellmanFord.run: arcs that still relax are fed by a negative cycle, and so
+        // is everything they reach
+        int[] offsets = idx.offsets;
+        int[] stack = new int[n];
+        int top = 0;
+        for (int a = 0; a < m; a++) {
+            int v = targets[a];
+            if (d[v] != Double.NEGATIVE_INFINITY && d[sources[a]] + w[a] < d[v]) {
+                d[v] = Double.NEGATIVE_INFINITY;
+                stack[top++] = v;
+            }
+        }
+        boolean negativeCycle = top > 0;
+        while (top > 0) {
+            int u = stack[--top];
+            for (int a = offsets[u]; a < offsets[u + 1]; a++) {
+                int v = targets[a];
+                if (d[v] != Double.NEGATIVE_INFINITY) {
+                    d[v] = Double.NEGATIVE_INFINITY;
+                    stack[top++] = v;
+                }
+            }
+        }
+
+        Map<String, Double> result = new HashMap<>();
+        for (String node : g.nodes) result.put(node, Double.POSITIVE_INFINITY);
+        for (int i = 0; i < n; i++) result.put(idx.ids[i], d[i]);
+
+        long end = System.currentTimeMillis();
+        return new BellmanFord.Result(result, end - start, negativeCycle);
+    }
+
+    // Maps doubles to longs whose signed order matches the double order (-0.0 is folded into 0.0)
+    static long encode(double d) {
+        long bits = Double.doubleToRawLongBits(d == 0.0 ? 0.0 : d);
+        return bits >= 0 ? bits : bits ^ Long.MAX_VALUE;
+    }
+
+    static double decode(long e) {
+        return Double.longBitsToDouble(e >= 0 ? e : e ^ Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,70 @@
+import java.util.*;
+
+public class ReorderBenchmark {
+
+    static final int SOURCES = 200;        // Dijkstra / SSSP sources per measurement
+    static final int BELLMAN_SOURCES = 2;  // Bellman-Ford is O(V * E) per source
+    static final int APSP_MAX_NODES = 2000;
+    static final int REPEATS = 3;
+
+    // Usage: java ReorderBenchmark [dataset.csv]
+    // Times every engine on the graph as loaded and after each reordering strategy.
+    public static void main(String[] args) throws Exception {
+        String csv = args.length > 0 ? args[0] : "dataset_final.csv";
+
+        Graph probe = new Graph();
+        probe.loadCSV(csv);
+        System.out.println("Dataset: " + csv + " (" + probe.nodes.size() + " nodes, " + probe.edgeCount + " edges)");
+        System.out.println("Best of " + REPEATS + " runs, times in ms");
+        System.out.println("=".repeat(100));
+        System.out.printf("%-10s | %-9s | %-9s | %-9s | %-9s | %-9s | %-9s | %-9s%n",
+                "Order", "Reorder", "Dijkstra", "SSSP", "Bellman", "ParBF", "MultiBFS", "AllPairs");
+        System.out.println("-".repeat(100));
+
+        List<String> configs = new ArrayList<>();
+        configs.add("ORIGINAL");
+        for (GraphReorder.Strategy s : GraphReorder.Strategy.values()) configs.add(s.name());
+
+        for (String config : configs) {
+            Graph g = new Graph();
+            g.loadCSV(csv);
+            g.index();
+
+            long reorderMs = 0;
+            if (!config.equals("ORIGINAL")) {
+                reorderMs = GraphReorder.apply(g, GraphReorder.Strategy.valueOf(config)).timeMs;
+            }
+
+            // Same source sample for every ordering, picked by course id
+            List<String> sorted = new ArrayList<>(g.nodes);
+            Collections.sort(sorted);
+            List<String> sources = sorted.subList(0, Math.min(SOURCES, sorted.size()));
+            List<String> bellmanSources = sorted.subList(0, Math.min(BELLMAN_SOURCES, sorted.size()));
+
+            double dijkstra = best(() -> { for (String s : sources) Dijkstra.run(g, s); });
+            double sssp = best(() -> { for (String s : sources) SSSP.run(g, s); });
+            double bellman = best(() -> { for (String s : bellmanSources) BellmanFord.run(g, s); });
+            double parallelBellman = best(() -> { for (String s : bellmanSources) ParallelBellmanFord.run(g, s); });
+            double multiBfs = best(() -> MultiSourceBFS.run(g, new ArrayList<>(g.nodes)));
+            String allPairs = g.nodes.size() <= APSP_MAX_NODES
+                    ? String.format("%.1f", best(() -> AllPairs.run(g)))
+                    : "skipped";
+
+            System.out.printf("%-10s | %-9d | %-9.1f | %-9.1f | %-9.1f | %-9.1f | %-9.1f | %-9s%n",
+                    config, reorderMs, dijkstra, sssp, bellman, parallelBellman, multiBfs, allPairs);
+        }
+        System.out.println("=".repeat(100));
+    }
+
+    // Warm-up once, then the fastest of REPEATS runs
+    private static double best(Runnable task) {
+        task.run();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < REPEATS; i++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1_000_000.0;
+    }
+}
@@ -13,6 +13,11 @@ public class SSSP {
     }
 
     public static Result run(Graph g, String src) {
+        return run(g, src, null);
+    }
+
+    // Only follows edges the view allows; a null view allows every edge
+    public static Result run(Graph g, String src, GraphView view) {
         long start = System.currentTimeMillis();
 
         Map<String, Integer> dist = new HashMap<>();
@@ -27,6 +32,7 @@ public class SSSP {
             if (!g.adj.containsKey(u)) continue;
 
             for (Graph.Edge e : g.adj.get(u)) {
+                if (view != null && !view.allows(e)) continue;
                 if (dist.get(e.to) > dist.get(u) + 1) {
                     dist.put(e.to, dist.get(u) + 1);
                     q.add(e.to);